@@ -0,0 +1,109 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.bench;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.AgentI;
+import org.admm4j.impl.base.AgentII;
+import org.admm4j.impl.base.Mailbox;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of one round trip of messages between an agent I and its agents II
+ * An AgentI of a node I with the given number of neighbors runs in its own thread as in the default engine,
+ * the benchmark thread plays its AgentIIs: sends their variables and multipliers and receives the variables of node I
+ * Nodes do nothing in solve, so only the messaging path is measured
+ *
+ * @author Roman Denysiuk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagingBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"1", "4", "16"})
+    public int neighbors;
+
+    @Param({"org.admm4j.impl.base.QueueMailbox", "org.admm4j.impl.base.RingMailbox"})
+    public String mailbox;
+
+    List<AgentII> agentsII;
+    Thread threadI;
+
+    @Setup
+    public void setup(){
+        Random random = new Random(1);
+        Map<String, Mailbox> queues = new HashMap();
+
+        Node nodeI = Models.build("org.admm4j.demo.common.DummyNode", "I", 1, Models.neighbors("II", neighbors, size), null);
+        Models.randomize(nodeI, random);
+        queues.put(nodeI.name, Mailbox.instantiate(mailbox, nodeI.neighbors, 1));
+
+        agentsII = new ArrayList();
+        for(String name: nodeI.neighbors){
+            JsonArray edge = new JsonArray();
+            edge.add(nodeI.name + ":" + size + ":1");
+            Node nodeII = Models.build("org.admm4j.demo.common.DummyNode", name, 2, edge, null);
+            Models.randomize(nodeII, random);
+
+            List<String> senders = new ArrayList(nodeII.neighbors);
+            senders.add("ADMM");
+            queues.put(name, Mailbox.instantiate(mailbox, senders, 1));
+            agentsII.add(new AgentII(nodeII, queues));
+        }
+
+        threadI = new Thread(new AgentI(nodeI, queues), "agentI");
+        threadI.setDaemon(true);
+        threadI.start();
+    }
+
+    @Benchmark
+    public void roundTrip(){
+        for(AgentII agent: agentsII){
+            agent.sendVariables();
+        }
+        for(AgentII agent: agentsII){
+            agent.receiveVariables();
+        }
+    }
+
+    // agent I stops when it receives stopping from all neighbors
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        for(AgentII agent: agentsII){
+            agent.stopping = true;
+            agent.sendVariables();
+        }
+        threadI.join();
+    }
+}
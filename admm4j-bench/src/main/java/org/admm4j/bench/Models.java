@@ -0,0 +1,89 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.bench;
+
+import org.admm4j.core.Node;
+
+import java.util.Random;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Builds nodes for benchmarks from JSON models of the input format,
+ * data are random with a fixed seed so all runs measure the same problems
+ *
+ * @author Roman Denysiuk
+ */
+public class Models {
+
+    // neighbors "<prefix><k>:<size>:1" of a model
+    public static JsonArray neighbors(String prefix, int count, int size){
+        JsonArray array = new JsonArray();
+        for(int k = 0; k < count; k++){
+            array.add(prefix + k + ":" + size + ":1");
+        }
+        return array;
+    }
+
+    // node of the given class and type with the given neighbors and input, null if no input
+    public static Node build(String nodeClass, String name, int type, JsonArray neighbors, JsonObject input){
+        JsonObject model = new JsonObject();
+        model.addProperty("name", name);
+        model.addProperty("class", nodeClass);
+        model.add("neighbors", neighbors);
+        if(input != null){
+            model.add("input", input);
+        }
+        Node node = Node.instantiate(nodeClass, name, type);
+        node.initialize(model);
+        return node;
+    }
+
+    // fills variables, neighbor variables, multipliers, and previous variables of all neighbors
+    public static void randomize(Node node, Random random){
+        for(String neighbor: node.neighbors){
+            fill(node.variables.get(neighbor), random);
+            fill(node.neighborVariables.get(neighbor), random);
+            fill(node.multipliers.get(neighbor), random);
+            fill(node.previousVariables.get(neighbor), random);
+        }
+    }
+
+    public static void fill(double[] a, Random random){
+        for(int i = 0; i < a.length; i++){
+            a[i] = random.nextGaussian();
+        }
+    }
+
+    public static double[] vector(int n, Random random){
+        double[] a = new double[n];
+        fill(a, random);
+        return a;
+    }
+
+    public static JsonArray array(double[] a){
+        JsonArray array = new JsonArray();
+        for(double v: a){
+            array.add(v);
+        }
+        return array;
+    }
+
+    // gaussian entries scaled by 1/sqrt(rows), so A^T*A stays well conditioned for iterative solvers
+    public static JsonArray matrix(int rows, int cols, Random random){
+        JsonArray array = new JsonArray();
+        double scale = 1 / Math.sqrt(rows);
+        for(int i = 0; i < rows; i++){
+            double[] row = vector(cols, random);
+            for(int j = 0; j < cols; j++){
+                row[j] *= scale;
+            }
+            array.add(array(row));
+        }
+        return array;
+    }
+}
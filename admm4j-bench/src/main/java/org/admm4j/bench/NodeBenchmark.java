@@ -0,0 +1,87 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.bench;
+
+import org.admm4j.core.Node;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the vector kernels of a node II executed in each iteration
+ * size - number of variables of each edge, neighbors - number of edges
+ *
+ * @author Roman Denysiuk
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"1", "4", "16"})
+    public int neighbors;
+
+    Node node;
+    double[][] buffers; // proximal points of each neighbor
+
+    @Setup
+    public void setup(){
+        node = Models.build("org.admm4j.demo.common.DummyNode", "II", 2, Models.neighbors("I", neighbors, size), null);
+        Models.randomize(node, new Random(1));
+        buffers = new double[neighbors][size];
+    }
+
+    @Benchmark
+    public double[] updateResiduals(){
+        node.updateResiduals();
+        return node.residuals;
+    }
+
+    // multipliers grow linearly with the number of calls, which does not change the cost
+    @Benchmark
+    public void updateMultipliers(){
+        node.updateMultipliers();
+    }
+
+    @Benchmark
+    public void getProximalPoint(Blackhole blackhole){
+        int k = 0;
+        for(String neighbor: node.neighbors){
+            blackhole.consume(node.getProximalPoint(neighbor, buffers[k++]));
+        }
+    }
+
+    // coordinate access used by nodes which do not copy the proximal point
+    @Benchmark
+    public double getProximalPointCoordinates(){
+        double sum = 0;
+        for(String neighbor: node.neighbors){
+            for(int i = 0; i < size; i++){
+                sum += node.getProximalPoint(neighbor, i);
+            }
+        }
+        return sum;
+    }
+}
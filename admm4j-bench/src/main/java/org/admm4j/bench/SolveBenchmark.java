@@ -0,0 +1,145 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.bench;
+
+import org.admm4j.core.Node;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of solve of the demo nodes, each a node I with a single neighbor
+ *  size        - number of variables (features for logistic regression and k-means)
+ *  rows        - rows of data of least squares, logistic regression, and k-means
+ *  constraints - halfspaces of the projection, which are combined with a rectangle by Dykstra's algorithm
+ * The demo nodes take a single neighbor, so there is no neighbor count here
+ *
+ * Each invocation alternates between two proximal points 1% apart, as in consecutive iterations of ADMM,
+ * so nodes warm-started from their last solution do not find it already optimal
+ *
+ * @author Roman Denysiuk
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({"projection", "leastSquaresAnalytical", "leastSquaresIterative", "logisticRegression", "kmeans", "l1Norm"})
+    public String node;
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"10"})
+    public int constraints;
+
+    static final int CLUSTERS = 4; // clusters of k-means, its variables are the concatenated centers
+
+    Node nodeI;
+    String neighbor;
+    double[] z0; // variables of neighbor in even invocations
+    double[] z1; // in odd invocations
+    boolean odd;
+
+    @Setup
+    public void setup(){
+        Random random = new Random(1);
+        JsonObject input = new JsonObject();
+        String nodeClass;
+        int n = size;
+
+        switch(node){
+            case "projection":
+                nodeClass = "org.admm4j.demo.common.ProjectionNode";
+                JsonObject polyhedral = new JsonObject();
+                polyhedral.add("A", Models.matrix(constraints, size, random));
+                JsonArray b = new JsonArray();
+                for(int i = 0; i < constraints; i++){
+                    b.add(0.1 + random.nextDouble()); // the origin is feasible
+                }
+                polyhedral.add("b", b);
+                input.add("Polyhedral", polyhedral);
+                JsonObject rectangle = new JsonObject();
+                double[] lb = new double[size];
+                double[] ub = new double[size];
+                Arrays.fill(lb, -1);
+                Arrays.fill(ub, 1);
+                rectangle.add("lb", Models.array(lb));
+                rectangle.add("ub", Models.array(ub));
+                input.add("Rectangle", rectangle);
+                break;
+            case "leastSquaresAnalytical":
+            case "leastSquaresIterative":
+                nodeClass = "org.admm4j.demo.ml.linearmodel.LeastSquaresNode";
+                input.addProperty("method", node.equals("leastSquaresAnalytical") ? "analytical" : "iterative");
+                input.add("A", Models.matrix(rows, size, random));
+                input.add("b", Models.array(Models.vector(rows, random)));
+                break;
+            case "logisticRegression":
+                nodeClass = "org.admm4j.demo.ml.linearmodel.LogisticRegressionNode";
+                input.add("data", Models.matrix(rows, size, random));
+                JsonArray target = new JsonArray();
+                for(int i = 0; i < rows; i++){
+                    target.add(random.nextInt(2));
+                }
+                input.add("target", target);
+                break;
+            case "kmeans":
+                nodeClass = "org.admm4j.demo.ml.cluster.KMeansWorker";
+                input.add("data", Models.matrix(rows, size, random));
+                input.addProperty("k", CLUSTERS);
+                n = CLUSTERS * size;
+                break;
+            case "l1Norm":
+                nodeClass = "org.admm4j.demo.common.L1NormNode";
+                double[] lambda = new double[size];
+                Arrays.fill(lambda, 0.1);
+                input.add("lambda", Models.array(lambda));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown node: " + node);
+        }
+
+        nodeI = Models.build(nodeClass, "I", 1, Models.neighbors("II", 1, n), input);
+        neighbor = nodeI.neighbors.get(0);
+        Models.randomize(nodeI, random);
+        z0 = Models.vector(n, random);
+        z1 = z0.clone();
+        for(int i = 0; i < n; i++){
+            z1[i] += 0.01 * random.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    public double[] solve(){
+        odd = !odd;
+        nodeI.neighborVariables.put(neighbor, odd ? z1 : z0);
+        nodeI.solve();
+        return nodeI.variables.get(neighbor);
+    }
+}
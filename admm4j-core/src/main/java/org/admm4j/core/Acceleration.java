@@ -0,0 +1,93 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.core;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implements Nesterov momentum of the variables and multipliers of a node II
+ * (fast ADMM with restart)
+ * After an update giving z and u, node II sends and continues from the extrapolated
+ *  z^ = z + m*(z - zprev), u^ = u + m*(u - uprev), m = (a - 1)/a', a' = (1 + sqrt(1 + 4a^2))/2
+ * as long as the combined residual rho*||x - z||^2 + ||rho*(z - z^)||^2/rho
+ * decreases by the factor restart, otherwise momentum is restarted and z, u are sent as they are
+ * Restarting from the current iterate rather than from zprev and uprev
+ * took fewer iterations on the consensus examples, plain steps follow a restart
+ * until the combined residual beats the last accepted one
+ *
+ * The combined residual is taken from the residuals of the node,
+ * so each node II restarts on its own
+ *
+ * @author Roman Denysiuk
+ */
+public class Acceleration implements Serializable {
+
+    public double restart = 0.999; // required decrease of the combined residual
+    public double momentum = 1; // a, 1 after a restart
+    public double combined = Double.NaN; // combined residual of the last accepted step
+
+    // variables and multipliers before extrapolation in the last iteration
+    Map<String, double[]> previousVariables;
+    Map<String, double[]> previousMultipliers;
+
+    // called after residuals of the node are updated
+    public void update(Node node){
+
+        double rho = 0;
+        for(String neighbor: node.neighbors){
+            rho += node.scalingParameters.get(neighbor);
+        }
+        rho /= node.neighbors.size();
+        double c = rho * Math.pow(node.residuals[0], 2) + Math.pow(node.residuals[1], 2) / rho;
+
+        if(previousVariables == null){
+            previousVariables = new HashMap();
+            previousMultipliers = new HashMap();
+            for(String neighbor: node.neighbors){
+                previousVariables.put(neighbor, node.variables.get(neighbor).clone());
+                previousMultipliers.put(neighbor, node.multipliers.get(neighbor).clone());
+            }
+            combined = c;
+            return;
+        }
+
+        double m = 0;
+        if(c < restart * combined){
+            double next = (1 + Math.sqrt(1 + 4 * momentum * momentum)) / 2;
+            m = (momentum - 1) / next;
+            momentum = next;
+            combined = c;
+        }
+        else{
+            // restart momentum from the current iterate, the next step has to beat the last accepted one
+            momentum = 1;
+            combined /= restart;
+        }
+        for(String neighbor: node.neighbors){
+            extrapolate(node.variables.get(neighbor), previousVariables.get(neighbor), m, node.numVariables.get(neighbor));
+            extrapolate(node.multipliers.get(neighbor), previousMultipliers.get(neighbor), m, node.numVariables.get(neighbor));
+        }
+    }
+
+    // forgets momentum and history, used when the scaling parameters change
+    public void reset(){
+        momentum = 1;
+        combined = Double.NaN;
+        previousVariables = null;
+        previousMultipliers = null;
+    }
+
+    // y = y + m*(y - yprev), yprev keeps y before extrapolation
+    static void extrapolate(double[] y, double[] yprev, double m, int n){
+        for(int i = 0; i < n; i++){
+            double current = y[i];
+            y[i] = current + m * (current - yprev[i]);
+            yprev[i] = current;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.core;
+
+import java.io.Serializable;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements a histogram of durations with buckets of powers of two nanoseconds
+ * Adding a value is a few arithmetic operations without allocation or locking,
+ * values are added by a single thread and may be read by others while added
+ * Quantiles are upper bounds of their buckets, so they are within a factor of two
+ *
+ * @author Roman Denysiuk
+ */
+public class Histogram implements Serializable {
+
+    long[] buckets = new long[64]; // bucket k counts values in [2^(k-1), 2^k)
+    public long count = 0;
+    public long sum = 0; // nanoseconds
+    public long max = 0; // nanoseconds
+
+    public void add(long nanos){
+        if(nanos < 0){
+            nanos = 0;
+        }
+        buckets[64 - Long.numberOfLeadingZeros(nanos)]++;
+        count++;
+        sum += nanos;
+        if(nanos > max){
+            max = nanos;
+        }
+    }
+
+    public double getMean(){
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    // upper bound of the bucket holding the quantile q in [0,1], nanoseconds
+    public long getQuantile(double q){
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for(int k = 0; k < buckets.length; k++){
+            seen += buckets[k];
+            if(seen >= rank){
+                return (k == 0) ? 0 : Math.min(max, (1L << k) - 1);
+            }
+        }
+        return max;
+    }
+
+    // summary in microseconds
+    public JsonObject getJson(){
+        JsonObject json = new JsonObject();
+        json.addProperty("count", count);
+        json.addProperty("meanMicros", getMean() / 1e3);
+        json.addProperty("p50Micros", getQuantile(0.5) / 1e3);
+        json.addProperty("p99Micros", getQuantile(0.99) / 1e3);
+        json.addProperty("maxMicros", max / 1e3);
+        return json;
+    }
+}
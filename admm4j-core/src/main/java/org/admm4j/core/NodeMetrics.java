@@ -0,0 +1,102 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.core;
+
+import java.io.Serializable;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements the metrics of a node, histograms of the time spent in each phase
+ *  solve:    solve of the node
+ *  receive:  waiting for and taking the messages of neighbors
+ *  send:     sending messages to neighbors
+ *  stopping: node II waiting for the decision of the controller
+ * and the bytes of arrays sent to neighbors (8 per double, whether copied or not)
+ *
+ * Each phase is timed by the thread executing the node, which is the only writer,
+ * engines whose nodes read each other directly record solve only
+ *
+ * @author Roman Denysiuk
+ */
+public class NodeMetrics implements NodeMetricsMBean, Serializable {
+
+    public String name;
+    public Histogram solve = new Histogram();
+    public Histogram receive = new Histogram();
+    public Histogram send = new Histogram();
+    public Histogram stopping = new Histogram();
+    public long bytesSent = 0;
+
+    public NodeMetrics(String name){
+        this.name = name;
+    }
+
+    // counts the arrays of a message sent to a neighbor
+    public void addBytes(double[] variables, double[] multipliers){
+        if(variables != null){
+            bytesSent += 8L * variables.length;
+        }
+        if(multipliers != null){
+            bytesSent += 8L * multipliers.length;
+        }
+    }
+
+    public JsonObject getJson(){
+        JsonObject json = new JsonObject();
+        json.add("solve", solve.getJson());
+        json.add("receive", receive.getJson());
+        json.add("send", send.getJson());
+        json.add("stopping", stopping.getJson());
+        json.addProperty("bytesSent", bytesSent);
+        return json;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getSolveCount() {
+        return solve.count;
+    }
+
+    @Override
+    public double getSolveMeanMicros() {
+        return solve.getMean() / 1e3;
+    }
+
+    @Override
+    public double getSolveP99Micros() {
+        return solve.getQuantile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getReceiveMeanMicros() {
+        return receive.getMean() / 1e3;
+    }
+
+    @Override
+    public double getReceiveP99Micros() {
+        return receive.getQuantile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getSendMeanMicros() {
+        return send.getMean() / 1e3;
+    }
+
+    @Override
+    public double getStoppingMeanMicros() {
+        return stopping.getMean() / 1e3;
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.core;
+
+/**
+ * Management interface of the metrics of a node, times in microseconds
+ *
+ * @author Roman Denysiuk
+ */
+public interface NodeMetricsMBean {
+
+    public String getName();
+
+    public long getSolveCount();
+
+    public double getSolveMeanMicros();
+
+    public double getSolveP99Micros();
+
+    public double getReceiveMeanMicros();
+
+    public double getReceiveP99Micros();
+
+    public double getSendMeanMicros();
+
+    public double getStoppingMeanMicros();
+
+    public long getBytesSent();
+}
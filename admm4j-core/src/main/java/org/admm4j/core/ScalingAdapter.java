@@ -0,0 +1,71 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.core;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Abstract class representing a strategy adapting the scaling parameters of a node II
+ * Each node II has its own instance, called once per iteration after residuals are updated
+ * The strategy returns a factor applied to the scaling parameters of all edges of the node,
+ * so a node II solving its subproblem with equal weights stays consistent
+ *
+ * Adaptation happens every frequency iterations and stops after limit iterations,
+ * the scaling parameters are then fixed and the usual convergence of ADMM applies
+ *
+ * @author Roman Denysiuk
+ */
+public abstract class ScalingAdapter implements Serializable {
+
+    public int frequency = 2; // iterations between adaptations
+    public int limit = 1000; // iterations after which scaling parameters are fixed
+    public int iteration = 0; // local iteration counter
+
+    // sets parameters, adapters with parameters override this method
+    public void initialize(JsonObject settings){
+        if(settings.has("scalingFrequency")){
+            frequency = Math.max(1, settings.get("scalingFrequency").getAsInt());
+        }
+        if(settings.has("scalingLimit")){
+            limit = settings.get("scalingLimit").getAsInt();
+        }
+    }
+
+    // returns the factor of scaling parameters of the node, 1 if unchanged
+    public double update(Node node){
+        iteration++;
+        if(iteration > limit || iteration % frequency != 0){
+            return 1;
+        }
+        double factor = adapt(node);
+        return (factor > 0 && !Double.isInfinite(factor)) ? factor : 1; // NaN as well
+    }
+
+    // evaluates the factor at an adaptation iteration
+    public abstract double adapt(Node node);
+
+
+    public static ScalingAdapter instantiate(String adapterClass, JsonObject settings){
+
+        // INSTANTIATE OBJECT
+        ScalingAdapter adapter = null;
+        try {
+            Class<?> clazz = Class.forName(adapterClass); // adapterClass - full path of the class
+            Constructor<?> constructor = clazz.getConstructor();
+            adapter = (ScalingAdapter) constructor.newInstance();
+        } catch (ClassNotFoundException | IllegalAccessException | IllegalArgumentException | InstantiationException | NoSuchMethodException | SecurityException | InvocationTargetException ex) {
+            System.err.println(ex);
+        }
+
+        adapter.initialize(settings);
+
+        return adapter;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.async;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements asynchronous ADMM with bounded staleness
+ * Each node is run by its own thread as in the base engine, but 
+ * an agent II proceeds once a given fraction of its neighbors has reported
+ * and reuses the last known variables of the others, 
+ * provided they are not older than the given number of iterations
+ * 
+ * Local convergence is accepted only from agents II 
+ * which used variables of the current iteration from all neighbors
+ * 
+ * @author Roman Denysiuk
+ */
+public class AsyncAdmm extends Admm {
+    
+    public double asyncFraction = 1; // fraction of neighbors agent II waits for in each iteration
+    public int maxStaleness = 0; // max number of iterations variables of a neighbor can lag behind
+    
+    @Override
+    public void initialize(JsonObject settings){
+        super.initialize(settings);
+        if(settings.has("asyncFraction")){
+            asyncFraction = settings.get("asyncFraction").getAsDouble();
+        }
+        if(settings.has("maxStaleness")){
+            maxStaleness = settings.get("maxStaleness").getAsInt();
+        }
+        andersonMemory = 0; // agents II do not wait for each other
+        checkpointFile = null; // agents keep running while the state would be copied
+    }
+    
+    @Override
+    public void build(){
+        
+        tasks = new LinkedList();
+        queues = new HashMap();
+        accumulator.reset(nodesII.size());
+        
+        // agents can be up to maxStaleness iterations apart
+        int capacity = maxStaleness + 2;
+        
+        for(Node node: nodesI.values()){
+            queues.put(node.name, makeMailbox(node.neighbors, capacity));
+            AsyncAgentI agent = new AsyncAgentI(node, queues);
+            agent.admm = this;
+            tasks.add(agent);
+        }
+        
+        for(Node node: nodesII.values()){
+            queues.put(node.name, makeMailbox(getSendersII(node), capacity));
+            int minReports = (int) Math.ceil(asyncFraction * node.neighbors.size());
+            AsyncAgentII agent = new AsyncAgentII(node, queues, Math.max(1, minReports), maxStaleness);
+            agent.accumulator = accumulator;
+            agent.admm = this;
+            tasks.add(agent);
+        }
+        
+        // ADMM controller, woken by an agent which has failed as well
+        List<String> senders = new ArrayList(nodesII.keySet());
+        senders.add(ABORT);
+        queues.put("ADMM", makeMailbox(senders));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.async;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+import org.admm4j.impl.base.AgentI;
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Implements an asynchronous computing agent associated with a node of type I
+ * It waits for a new message from each neighbor, then takes all messages
+ * that have arrived meanwhile and uses the latest one from each neighbor
+ * Variables are sent as copies since neighbors do not wait for each other
+ * 
+ * @author Roman Denysiuk
+ */
+public class AsyncAgentI extends AgentI {
+    
+    Map<String, Integer> iterations; // iteration of the latest message from each neighbor
+    Set<String> reported; // neighbors which sent since the last solve
+    Set<String> stopped; // neighbors which sent stopping
+    
+    public Admm admm; // aborted if the node fails
+    
+    public AsyncAgentI(Node node, Map<String, Mailbox> queues){
+        super(node, queues);
+        iterations = new HashMap();
+        reported = new HashSet();
+        stopped = new HashSet();
+    }
+    
+    @Override
+    public void run(){
+        try {
+            super.run();
+        }
+        catch(RuntimeException ex){
+            admm.abort(ex);
+        }
+    }
+    
+    // receives the latest vars, mults, and stopping from neighboring agentII
+    @Override
+    public void receiveVariables(){
+        
+        int count = node.neighbors.size();
+        Mailbox queue = queues.get(node.name);
+        reported.clear();
+        
+        try {
+            while(reported.size() < count || (!stopped.isEmpty() && stopped.size() < count)){
+                handle(queue.take());
+            }
+            Message message;
+            while((message = queue.poll()) != null){
+                handle(message);
+            }
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+        
+        stopping = !stopped.isEmpty();
+    }
+    
+    public void handle(Message message){
+        node.neighborVariables.put(message.sender, message.variables);
+        node.multipliers.put(message.sender, message.multipliers);
+        node.setScalingParameter(message.sender, message.scalingParameter);
+        iterations.put(message.sender, message.iteration);
+        reported.add(message.sender);
+        if(message.stopping){
+            stopped.add(message.sender);
+        }
+    }
+    
+    // sends copies of vars to neighboring agentII
+    @Override
+    public void sendVariables(){
+        
+        // iteration of the oldest data used
+        int iteration = Integer.MAX_VALUE;
+        for(int k: iterations.values()){
+            iteration = Math.min(iteration, k);
+        }
+        
+        for(String neighbor: node.neighbors){
+            
+            Message message = new Message();
+            message.sender = node.name;
+            message.variables = node.variables.get(neighbor).clone();
+            message.iteration = iteration;
+            if(node.metrics != null){
+                node.metrics.addBytes(message.variables, null);
+            }
+            
+            Mailbox queue = queues.get(neighbor);
+            
+            try {
+                queue.put(message);
+            } catch (InterruptedException ex) {
+                System.err.println(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.async;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+import org.admm4j.impl.base.AgentII;
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Implements an asynchronous computing agent associated with a node of type II
+ * It proceeds when minReports neighbors have reported since the last update
+ * and variables of none of neighbors are more than maxStaleness iterations old
+ * Variables and multipliers are sent as copies since neighbors do not wait for each other
+ * 
+ * @author Roman Denysiuk
+ */
+public class AsyncAgentII extends AgentII {
+    
+    int minReports;
+    int maxStaleness;
+    
+    Map<String, Integer> iterations; // iteration of the latest variables from each neighbor
+    Set<String> reported; // neighbors which sent since the last update
+    
+    public Admm admm; // aborted if the node fails
+    
+    public AsyncAgentII(Node node, Map<String, Mailbox> queues, int minReports, int maxStaleness){
+        super(node, queues);
+        this.minReports = minReports;
+        this.maxStaleness = maxStaleness;
+        iterations = new HashMap();
+        reported = new HashSet();
+        for(String neighbor: node.neighbors){
+            iterations.put(neighbor, -1);
+        }
+    }
+    
+    @Override
+    public void run(){
+        try {
+            super.run();
+        }
+        catch(RuntimeException ex){
+            admm.abort(ex);
+        }
+    }
+    
+    // sends copies of vars, mults, and stopping to neighboring agentI
+    @Override
+    public void sendVariables(){
+        for(String neighbor: node.neighbors){
+            
+            Message message = new Message();
+            message.sender = node.name;
+            message.variables = node.variables.get(neighbor).clone();
+            message.multipliers = node.multipliers.get(neighbor).clone();
+            message.scalingParameter = node.getScalingParameter(neighbor);
+            message.stopping = stopping;
+            message.iteration = iteration;
+            if(node.metrics != null){
+                node.metrics.addBytes(message.variables, message.multipliers);
+            }
+            
+            Mailbox queue = queues.get(neighbor);
+            
+            try {
+                queue.put(message);
+            } catch (InterruptedException ex) {
+                System.err.println(ex);
+            }
+        }
+    }
+    
+    // receives vars from neighboring agentI until enough of them have reported
+    @Override
+    public void receiveVariables(){
+        
+        Mailbox queue = queues.get(node.name);
+        
+        try {
+            while(!isReady()){
+                handle(queue.take());
+            }
+            Message message;
+            while((message = queue.poll()) != null){
+                handle(message);
+            }
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+        
+        reported.clear();
+    }
+    
+    public boolean isReady(){
+        if(reported.size() < minReports){
+            return false;
+        }
+        for(int k: iterations.values()){
+            if(iteration - k > maxStaleness){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public void handle(Message message){
+        if(message.sender.equals("ADMM")){
+            stopping = message.stopping;
+            return;
+        }
+        node.neighborVariables.put(message.sender, message.variables);
+        iterations.put(message.sender, message.iteration);
+        reported.add(message.sender);
+    }
+    
+    // residuals are accepted only if variables of all neighbors were from the last iteration
+    @Override
+    public void sendResiduals(){
+        
+        int oldest = iteration - 1;
+        for(int k: iterations.values()){
+            oldest = Math.min(oldest, k);
+        }
+        
+        if(accumulator.add(node.residuals, oldest == iteration - 1)){
+            wakeController();
+        }
+    }
+    
+    // receives stopping from controller, variables from agentI may arrive meanwhile
+    @Override
+    public void receiveStopping(){
+        
+        Mailbox queue = queues.get(node.name);
+        
+        try {
+            Message message;
+            do {
+                message = queue.take();
+                handle(message);
+            } while(!message.sender.equals("ADMM"));
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+    }
+}
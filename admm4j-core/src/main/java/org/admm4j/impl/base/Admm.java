@@ -6,10 +6,19 @@
 package org.admm4j.impl.base;
 
 import org.admm4j.core.Node;
+import org.admm4j.impl.jfr.Events;
+import org.admm4j.impl.jfr.ResidualsEvent;
+import org.admm4j.impl.jfr.StoppingEvent;
 
 import java.util.Map;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.ArrayList;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import com.google.gson.JsonObject;
 
 /**
  * Implements main steps of ADMM algorithm
@@ -17,6 +26,9 @@ import java.util.concurrent.BlockingQueue;
  * Each agent is executed as a separate thread
  * Agents exchange messages and are coordinated by this class
  * 
+ * Other execution engines extend this class and override 
+ * its lifecycle methods: build, start, await, shutdown
+ * 
  * @author Roman Denysiuk
  */
 public class Admm {
@@ -26,81 +38,335 @@ public class Admm {
     public int iterLimit;
     public long timeLimit;
     public int verbose;    
+    public int numThreads; // number of worker threads used by pooled engines (0 - number of cores)
+    public int checkFrequency = 1; // iterations between checks of stopping criteria
+    public boolean proximalMessages = false; // node II sends (z - u) instead of z and u to node I
+    public int andersonMemory = 0; // window of Anderson acceleration of the whole iteration, 0 - off
+    public AndersonAcceleration anderson; // made at the first check of stopping
+    public String checkpointFile = null; // binary checkpoint of all nodes, null - off
+    public int checkpointFrequency = 1000; // iterations between checkpoints, the last iteration is saved as well
+    public Checkpoint checkpoint; // made at the first checkpoint
+    public int restoredIteration = 0; // iteration of the checkpoint the run was restored from
+    int lastCheckpoint = 0; // iteration of the last checkpoint
+    public String traceFile = null; // residuals and rho of nodes II at each check of stopping, null - off
+    public String traceFormat = "csv"; // csv or binary
+    public TraceWriter trace; // made at the first check of stopping
+    public AdmmMetrics metrics; // times of solves and communication published over JMX, null - not measured
     
-    boolean stopping; // indicates global stopping criterion   
-    boolean convergence; // local convergences
-    int iterCounter;
-    long runTime;    
+    public boolean stopping; // indicates global stopping criterion   
+    public boolean convergence; // local convergences
+    public double[] residuals = new double[2]; // max primal and dual residuals of agents II in the last round
+    public volatile int iterCounter; // volatile, can be read while agents are running
+    public volatile long runTime;    
+    public long startTime;
+    
+    public ResidualAccumulator accumulator; // residuals of agents II and iterations when they are checked
     
     public Map<String, Node> nodesI;
     public Map<String, Node> nodesII;    
     
     public List<Runnable> tasks;        
-    public Map<String, BlockingQueue> queues;    
+    public Map<String, Mailbox> queues;    
+    public String mailbox = "org.admm4j.impl.base.QueueMailbox"; // full path of the class extending Mailbox
+    public MessagePool outbox = new MessagePool("ADMM"); // message reused for each agent II
+    
+    public static final String ABORT = "ABORT"; // sender of the message waking the controller after a failure
+    public volatile RuntimeException failure; // first failure of an agent, rethrown by the controller
     
+    List<Thread> threads;
+    
+    
+    // sets parameters, engines with own parameters override this method
+    public void initialize(JsonObject settings){
+        tolPrimal = settings.get("tolPrimal").getAsDouble();
+        tolDual = settings.get("tolDual").getAsDouble();
+        iterLimit = settings.get("iterLimit").getAsInt();
+        timeLimit = settings.get("timeLimit").getAsLong();
+        verbose = settings.get("verbose").getAsInt();
+        numThreads = settings.get("numThreads").getAsInt();
+        mailbox = settings.get("mailbox").getAsString();
+        checkFrequency = settings.get("checkFrequency").getAsInt();
+        proximalMessages = settings.get("proximalMessages").getAsBoolean();
+        if(settings.has("andersonMemory")){
+            andersonMemory = settings.get("andersonMemory").getAsInt();
+        }
+        if(settings.has("checkpointFile") && !settings.get("checkpointFile").isJsonNull()){
+            checkpointFile = settings.get("checkpointFile").getAsString();
+        }
+        if(settings.has("checkpointFrequency")){
+            checkpointFrequency = settings.get("checkpointFrequency").getAsInt();
+        }
+        if(settings.has("traceFile") && !settings.get("traceFile").isJsonNull()){
+            traceFile = settings.get("traceFile").getAsString();
+        }
+        if(settings.has("traceFormat")){
+            traceFormat = settings.get("traceFormat").getAsString();
+        }
+        if(settings.has("metrics") && settings.get("metrics").getAsBoolean()){
+            metrics = new AdmmMetrics(this);
+        }
+        accumulator = new ResidualAccumulator(checkFrequency, iterLimit, tolPrimal, tolDual);
+    }
+    
+    /**
+     * called for every node of the input in the order of the input, 
+     * returns true if the node is hosted by this engine
+     * type - 1 for nodes I, 2 for nodes II
+     * distributed engines host a subset of nodes, nodes of other processes are not built
+     */
+    public boolean isLocal(String name, int type){
+        return true;
+    }
     
     public void execute(){
         
         // set params
         stopping = false;
         convergence = false;
+        failure = null;
         iterCounter = 0;        
         runTime = 0;
-        long startTime = System.currentTimeMillis();               
+        startTime = System.currentTimeMillis();               
+        
+        // make agents and their queues
+        build();
         
         // execute agents I and II as cuncurrent threads
-        tasks.forEach((t) -> new Thread(t).start());
+        start();
         
-        // execute ADMM steps
-        while(!stopping){
-            
-            // receive local convergences            
-            receiveResiduals();
-            
-            // update interation and time counters
-            iterCounter++;
-            runTime = System.currentTimeMillis() - startTime;
-            
-            // check stopping criteria
-            stopping = convergence || (iterCounter == iterLimit) || (runTime >= timeLimit);
-            
-            // send stopping indicating whether to proceed
-            sendStopping();
+        try{
+            // execute ADMM steps
+            while(!stopping){
+
+                // receive local convergences            
+                ResidualsEvent reduced = Events.residuals();
+                receiveResiduals();
+                if(reduced != null){
+                    reduced.end();
+                }
+
+                // update interation and time counters, check stopping criteria
+                StoppingEvent decided = Events.stopping();
+                updateStopping();
+                if(reduced != null){
+                    reduced.commit(iterCounter, residuals[0], residuals[1], convergence);
+                }
+
+                // record residuals of agents II
+                updateTrace();
+
+                // mix states of agents II waiting for stopping
+                updateAnderson();
+
+                // save states of all nodes
+                updateCheckpoint();
+
+                // send stopping indicating whether to proceed
+                sendStopping();
+                if(decided != null){
+                    decided.commit(iterCounter, stopping);
+                }
+
+                // print current statistics
+                if(verbose > 0 && iterCounter % verbose == 0){
+                    printStats();
+                }            
+            }
             
-            // print current statistics
-            if(verbose > 0 && iterCounter % verbose == 0){
-                printStats();
-            }            
+            // wait for agents to finish
+            await();
+            if(failure != null){
+                throw failure;
+            }
+        }
+        finally{
+            shutdown();
         }
-        
     }
     
-    public void receiveResiduals(){
+    // makes computing agents and their queues
+    public void build(){
+        
+        tasks = new LinkedList();
+        queues = new HashMap();
+        accumulator.reset(nodesII.size());
+        setProximalMessages();
         
-        convergence = true;
-        int count = nodesII.size();
-        BlockingQueue queue = queues.get("ADMM");
+        for(Node node: nodesI.values()){
+            queues.put(node.name, makeMailbox(node.neighbors));
+            tasks.add(new AgentI(node, queues));
+        }
         
-        while(count > 0){
+        for(Node node: nodesII.values()){
+            queues.put(node.name, makeMailbox(getSendersII(node)));
+            AgentII agent = new AgentII(node, queues);
+            agent.accumulator = accumulator;
+            tasks.add(agent);
+        }
+        
+        // ADMM controller
+        queues.put("ADMM", makeMailbox(new ArrayList(nodesII.keySet())));
+    }
+    
+    // engines whose agents exchange messages in lockstep support proximal messages
+    public void setProximalMessages(){
+        for(Node node: nodesI.values()){
+            node.proximalMessages = proximalMessages;
+        }
+        for(Node node: nodesII.values()){
+            node.proximalMessages = proximalMessages;
+        }
+    }
+    
+    public Mailbox makeMailbox(List<String> senders){
+        return makeMailbox(senders, 1);
+    }
+    
+    public Mailbox makeMailbox(List<String> senders, int capacity){
+        return Mailbox.instantiate(mailbox, senders, capacity);
+    }
+    
+    // agent II receives from its neighbors and from controller
+    public List<String> getSendersII(Node node){
+        List<String> senders = new ArrayList(node.neighbors);
+        senders.add("ADMM");
+        return senders;
+    }
+    
+    // starts each agent as a separate thread
+    public void start(){
+        threads = new LinkedList();
+        for(Runnable task: tasks){
+            Thread thread = new Thread(task);
+            thread.setDaemon(true); // joined by the controller, agents left blocked after a failure do not keep the JVM
+            thread.start();
+            threads.add(thread);
+        }
+    }
+    
+    // waits for agents to finish
+    public void await(){
+        for(Thread thread: threads){
             try {
-                Message message = (Message) queue.take();
-                boolean local = (message.residuals[0] < tolPrimal) && (message.residuals[1] < tolDual);
-                convergence = (convergence && local);
+                thread.join();
             } catch (InterruptedException ex) {
                 System.err.println(ex);
             }
-            count--;
+        }
+    }
+    
+    // interrupts agents which are still running
+    public void shutdown(){
+        for(Thread thread: threads){
+            if(thread.isAlive()){
+                thread.interrupt();
+            }
+        }
+    }
+    
+    public void updateStopping(){
+        
+        // update interation and time counters, criteria are checked every checkFrequency iterations
+        iterCounter = accumulator.nextCheck(iterCounter);
+        runTime = System.currentTimeMillis() - startTime;
+        
+        // check stopping criteria
+        stopping = convergence || (iterCounter >= iterLimit) || (runTime >= timeLimit);
+    }
+    
+    // Anderson acceleration, called while all agents II wait for stopping
+    public void updateAnderson(){
+        if(andersonMemory <= 0 || stopping){
+            return;
+        }
+        if(anderson == null){
+            anderson = new AndersonAcceleration(nodesII.values(), andersonMemory);
+        }
+        anderson.update();
+    }
+    
+    // writes a checkpoint every checkpointFrequency iterations and at the end, called while all agents wait
+    public void updateCheckpoint(){
+        if(checkpointFile == null || (iterCounter - lastCheckpoint < checkpointFrequency && !stopping)){
+            return;
+        }
+        if(checkpoint == null){
+            checkpoint = new Checkpoint(checkpointFile, nodesI.values(), nodesII.values());
+        }
+        checkpoint.save(restoredIteration + iterCounter, stopping);
+        lastCheckpoint = iterCounter;
+    }
+    
+    // adds a record to the trace at each check of stopping and closes it at the end, called while all agents wait
+    public void updateTrace(){
+        if(traceFile == null){
+            return;
+        }
+        if(trace == null){
+            trace = new TraceWriter(traceFile, !traceFormat.equalsIgnoreCase("binary"), nodesII.values(), startTime);
+        }
+        trace.add(restoredIteration + iterCounter);
+        if(stopping){
+            trace.close();
+        }
+    }
+    
+    // takes the state of nodes from a checkpoint, called before execute
+    public void restore(String file){
+        restoredIteration = Checkpoint.restore(file, nodesI, nodesII);
+    }
+    
+    // waits for all agents II to report to the accumulator
+    public void receiveResiduals(){
+        
+        try {
+            // the agent completing the round sends a message
+            Mailbox queue = queues.get("ADMM");
+            long start = System.nanoTime();
+            queue.take();
+            if(metrics != null){
+                metrics.controllerWait.add(System.nanoTime() - start);
+            }
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+        if(failure != null){
+            throw failure;
+        }
+        
+        // start next round before agents proceed
+        residuals[0] = accumulator.getPrimal();
+        residuals[1] = accumulator.getDual();
+        convergence = accumulator.isConverged();
+        accumulator.reset(nodesII.size());
+    }
+    
+    /**
+     * called by an agent which has failed, engines calling it add ABORT to the senders of the controller mailbox
+     * the first failure wakes the controller, which rethrows it and interrupts the other agents
+     */
+    public synchronized void abort(RuntimeException ex){
+        if(failure != null){
+            return; // agents interrupted after the first failure
+        }
+        System.err.println(ex);
+        failure = ex;
+        Message message = new Message();
+        message.sender = ABORT;
+        try {
+            queues.get("ADMM").put(message);
+        } catch (InterruptedException e) {
+            System.err.println(e);
         }
     }
     
     public void sendStopping(){
         for(String name: nodesII.keySet()){
             
-            Message message = new Message();
-            message.sender = "ADMM";
+            Message message = outbox.get(name);
             message.stopping = stopping;
             
-            BlockingQueue queue = queues.get(name);
+            Mailbox queue = queues.get(name);
             
             try {
                 queue.put(message);
@@ -110,12 +376,66 @@ public class Admm {
         }
     }
     
+    public int getIterations(){
+        return iterCounter;
+    }
+    
+    public long getRunTime(){
+        return runTime;
+    }
+    
+    public double getIterationsPerSecond(){
+        return runTime > 0 ? 1000d * iterCounter / runTime : 0;
+    }
+    
+    // statistics saved with the output
+    public JsonObject getStats(){
+        JsonObject stats = new JsonObject();
+        stats.addProperty("runTime", runTime);
+        stats.addProperty("numIterations", iterCounter);
+        stats.addProperty("iterationsPerSecond", getIterationsPerSecond());
+        if(anderson != null){
+            stats.addProperty("andersonAccepted", anderson.accepted);
+            stats.addProperty("andersonRejected", anderson.rejected);
+        }
+        if(checkpoint != null){
+            stats.addProperty("checkpointsWritten", checkpoint.written);
+            stats.addProperty("checkpointsSkipped", checkpoint.skipped);
+        }
+        if(trace != null){
+            stats.addProperty("traceRecords", trace.records);
+            stats.addProperty("traceStalls", trace.stalls);
+        }
+        if(restoredIteration > 0){
+            stats.addProperty("restoredIteration", restoredIteration);
+        }
+        if(metrics != null){
+            stats.add("metrics", metrics.getJson());
+        }
+        return stats;
+    }
+    
     public void printStats(){
         System.out.printf("Iter: %d   Runtime: %d\n", iterCounter, runTime);
         for(Node node: nodesII.values()){
             System.out.printf("NodeII: %s primal: %.6f dual: %.6f\n", node.name, node.residuals[0], node.residuals[1]);
         }
     }
+    
+    public static Admm instantiate(String engineClass){
+        
+        // INSTANTIATE OBJECT
+        Admm admm = null;
+        try {
+            Class<?> clazz = Class.forName(engineClass); // engineClass - full path of the class
+            Constructor<?> constructor = clazz.getConstructor();
+            admm = (Admm) constructor.newInstance();
+        } catch (ClassNotFoundException | IllegalAccessException | IllegalArgumentException | InstantiationException | NoSuchMethodException | SecurityException | InvocationTargetException ex) {
+            System.err.println(ex);
+        }
+        
+        return admm;
+    }
 }
 
 
@@ -5,13 +5,12 @@
 */
 package org.admm4j.impl.base;
 
+import org.admm4j.core.Acceleration;
 import org.admm4j.core.Node;
+import org.admm4j.core.ScalingAdapter;
 
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -49,29 +48,72 @@ public class AdmmContext{
         settings.addProperty("iterLimit", Integer.MAX_VALUE);
         settings.addProperty("timeLimit", Long.MAX_VALUE);
         settings.addProperty("verbose", 0);
+        settings.addProperty("checkFrequency", 1); // iterations between checks of stopping criteria
+        settings.addProperty("andersonMemory", 0); // window of Anderson acceleration, 0 - off | 5 is typical
+        settings.add("checkpointFile", null); // binary checkpoint of all nodes written during the run, null - off
+        settings.addProperty("checkpointFrequency", 1000); // iterations between checkpoints
+        settings.add("restoreFile", null); // binary checkpoint the run starts from, null - initial state
+        settings.add("traceFile", null); // residuals and rho of nodes II at each check of stopping, null - off
+        settings.addProperty("traceFormat", "csv"); // csv or binary
+        settings.addProperty("metrics", false); // per-node times of solve and communication, published over JMX
+        settings.addProperty("proximalMessages", false); // node II sends (z - u) instead of z and u to node I
+        settings.addProperty("relaxation", 1.0); // over-relaxation of node II, 1 - plain ADMM | 1.5 to 1.8 is typical
+        settings.addProperty("acceleration", false); // Nesterov momentum of node II with restart
+        settings.addProperty("accelerationRestart", 0.999); // required decrease of the combined residual
+        
+        // adaptive scaling parameters
+        settings.add("scalingAdapter", null); // full path of the class extending ScalingAdapter, null - fixed rho
+        settings.addProperty("scalingFrequency", 2); // iterations between adaptations of rho
+        settings.addProperty("scalingLimit", 1000); // iterations after which rho is fixed
+        settings.addProperty("scalingRatio", 10); // residual balancing: allowed ratio of primal and dual residuals
+        settings.addProperty("scalingFactor", 2); // residual balancing: factor of rho
+        settings.addProperty("scalingCorrelation", 0.2); // spectral: min correlation for a curvature estimate
+        
+        // execution engine: full path of the class extending Admm
+        settings.addProperty("engine", "org.admm4j.impl.base.Admm");
+        settings.addProperty("numThreads", 0); // 0 - number of available processors
+        settings.addProperty("mailbox", "org.admm4j.impl.base.QueueMailbox"); // full path of the class extending Mailbox
+        
+        // asynchronous engine settings
+        settings.addProperty("asyncFraction", 1.0); // fraction of neighbors agent II waits for
+        settings.addProperty("maxStaleness", 0); // max number of iterations variables of a neighbor can lag behind
+        
+        // sequential engine settings
+        settings.addProperty("gaussSeidel", false); // Gauss-Seidel sweeps instead of Jacobi iteration
+        
+        // distributed engine settings
+        settings.addProperty("rank", 0); // index of this process in hosts
+        settings.add("hosts", null); // array of host:port of all processes
+        settings.add("sharedDirectory", null); // directory of memory-mapped regions, default: temporary directory
+        settings.addProperty("codec", "org.admm4j.impl.distributed.RawCodec"); // full path of the class extending ArrayCodec
+        settings.addProperty("codecThreshold", 1e-6); // change of a coordinate sent by threshold codec
+        
         settings.add("outputFile", null);
     }
     
     public void execute(JsonObject input){
         
+        // make solver
+        solver = Admm.instantiate(settings.get("engine").getAsString());
+        
         // set parameters
-        solver.tolPrimal = settings.get("tolPrimal").getAsDouble();
-        solver.tolDual = settings.get("tolDual").getAsDouble();
-        solver.iterLimit = settings.get("iterLimit").getAsInt();
-        solver.timeLimit = settings.get("timeLimit").getAsLong();
-        solver.verbose = settings.get("verbose").getAsInt();
+        solver.initialize(settings);
         
         // init
         solver.nodesI = new HashMap();
         solver.nodesII = new HashMap();
-        solver.tasks = new LinkedList();
-        solver.queues = new HashMap();
         
         // ACTORS
         for (JsonElement element: input.getAsJsonArray("nodesI")){
             
             // json model of agent
             JsonObject model = element.getAsJsonObject(); 
+            
+            // nodes hosted by other processes are not built
+            if(!solver.isLocal(model.get("name").getAsString(), 1)){
+                continue;
+            }
+            
             if(!model.has("neighbors") || model.get("neighbors").isJsonNull()){
                 addNeighbors(model, input.getAsJsonArray("nodesII"));
             }
@@ -84,15 +126,9 @@ public class AdmmContext{
             
             // init
             node.initialize(model);
+            node.relaxation = settings.get("relaxation").getAsDouble();
             
             solver.nodesI.put(node.name, node);
-            
-            // init queue
-            int capacity = node.neighbors.size();
-            BlockingQueue queue = new LinkedBlockingQueue(capacity);
-            solver.queues.put(node.name, queue);
-            
-            solver.tasks.add(new AgentI(node, solver.queues));
         }
         
         // NETS
@@ -100,6 +136,12 @@ public class AdmmContext{
             
             // json model of agent
             JsonObject model = element.getAsJsonObject();
+            
+            // nodes hosted by other processes are not built
+            if(!solver.isLocal(model.get("name").getAsString(), 2)){
+                continue;
+            }
+            
             if(!model.has("neighbors") || model.get("neighbors").isJsonNull()){
                 addNeighbors(model, input.getAsJsonArray("nodesI"));
             }
@@ -112,28 +154,46 @@ public class AdmmContext{
             
             // init
             node.initialize(model);
+            node.relaxation = settings.get("relaxation").getAsDouble();
             
-            solver.nodesII.put(node.name, node);
+            // each node II accelerates on its own
+            if(settings.get("acceleration").getAsBoolean()){
+                node.acceleration = new Acceleration();
+                node.acceleration.restart = settings.get("accelerationRestart").getAsDouble();
+            }
             
-            // init queue
-            int capacity = node.neighbors.size();
-            BlockingQueue queue = new LinkedBlockingQueue(capacity);
-            solver.queues.put(node.name, queue);
+            // each node II adapts its rho on its own
+            if(settings.has("scalingAdapter") && !settings.get("scalingAdapter").isJsonNull()){
+                node.scalingAdapter = ScalingAdapter.instantiate(settings.get("scalingAdapter").getAsString(), settings);
+            }
             
-            solver.tasks.add(new AgentII(node, solver.queues));
+            solver.nodesII.put(node.name, node);
         }
         
-        // ADMM controller
-        int capacity = solver.nodesII.size();
-        BlockingQueue queue = new LinkedBlockingQueue(capacity);
-        solver.queues.put("ADMM", queue);
+        // RESTORE state of nodes from a checkpoint
+        if(settings.has("restoreFile") && !settings.get("restoreFile").isJsonNull()){
+            solver.restore(settings.get("restoreFile").getAsString());
+        }
         
-        // RUN ADMM solver
-        solver.execute();
+        // PUBLISH metrics of nodes over JMX
+        if(solver.metrics != null){
+            solver.metrics.register();
+        }
         
-        // save output to file
-        if(settings.has("outputFile") && !settings.get("outputFile").isJsonNull()){
-            saveJsonToFile(getOutput(), settings.get("outputFile").getAsString());
+        try {
+            // RUN ADMM solver
+            solver.execute();
+            
+            // save output to file
+            if(settings.has("outputFile") && !settings.get("outputFile").isJsonNull()){
+                saveJsonToFile(getOutput(), settings.get("outputFile").getAsString());
+            }
+        }
+        finally {
+            // MBeans would keep the nodes alive in a long running JVM
+            if(solver.metrics != null){
+                solver.metrics.unregister();
+            }
         }
     }
     
@@ -183,9 +243,7 @@ public class AdmmContext{
     public JsonObject getOutput(){
         
         // MAKE JSON OUTPUT
-        JsonObject stats = new JsonObject();
-        stats.addProperty("runTime", solver.runTime);
-        stats.addProperty("numIterations", solver.iterCounter);
+        JsonObject stats = solver.getStats();
         
         JsonObject output = new JsonObject();
         output.add("nodesI", makeOutput(solver.nodesI));
@@ -0,0 +1,144 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import org.admm4j.core.Node;
+import org.admm4j.core.Histogram;
+import org.admm4j.core.NodeMetrics;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements the metrics of a run: the iteration rate, the largest residuals of nodes II,
+ * and the time the controller waits for the residuals of all agents II
+ * Each node gets its own NodeMetrics, all of them are published as MBeans
+ *  org.admm4j:type=Admm
+ *  org.admm4j:type=Node,name="<name of node>"
+ * in the platform MBean server, so a running solver can be watched with jconsole or any JMX client
+ *
+ * Residuals and counters are read while agents update them, so a reading may mix iterations
+ *
+ * @author Roman Denysiuk
+ */
+public class AdmmMetrics implements AdmmMetricsMBean {
+
+    public Histogram controllerWait = new Histogram();
+
+    Admm admm;
+    List<ObjectName> names = new ArrayList();
+
+    public AdmmMetrics(Admm admm){
+        this.admm = admm;
+    }
+
+    // gives metrics to all nodes and registers the MBeans, called before execute
+    public void register(){
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            register(server, new ObjectName("org.admm4j:type=Admm"), this);
+            for(Node node: admm.nodesI.values()){
+                node.metrics = new NodeMetrics(node.name);
+                register(server, new ObjectName("org.admm4j:type=Node,name=" + ObjectName.quote(node.name)), node.metrics);
+            }
+            for(Node node: admm.nodesII.values()){
+                node.metrics = new NodeMetrics(node.name);
+                register(server, new ObjectName("org.admm4j:type=Node,name=" + ObjectName.quote(node.name)), node.metrics);
+            }
+        } catch (JMException ex) {
+            System.err.println(ex);
+        }
+    }
+
+    // replaces MBeans left by a previous run in the same JVM
+    void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if(server.isRegistered(name)){
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(bean, name);
+        names.add(name);
+    }
+
+    public void unregister(){
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for(ObjectName name: names){
+            try {
+                if(server.isRegistered(name)){
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException ex) {
+                System.err.println(ex);
+            }
+        }
+        names.clear();
+    }
+
+    // summary saved with the statistics of the run
+    public JsonObject getJson(){
+        JsonObject json = new JsonObject();
+        json.add("controllerWait", controllerWait.getJson());
+        JsonObject nodes = new JsonObject();
+        for(Node node: admm.nodesI.values()){
+            nodes.add(node.name, node.metrics.getJson());
+        }
+        for(Node node: admm.nodesII.values()){
+            nodes.add(node.name, node.metrics.getJson());
+        }
+        json.add("nodes", nodes);
+        return json;
+    }
+
+    @Override
+    public int getIterations() {
+        return admm.iterCounter;
+    }
+
+    // rate since the start, runTime of the engine is updated only at checks of stopping
+    @Override
+    public double getIterationsPerSecond() {
+        long time = System.currentTimeMillis() - admm.startTime;
+        return time > 0 ? 1000d * admm.iterCounter / time : 0;
+    }
+
+    @Override
+    public double getPrimalResidual() {
+        double max = 0;
+        for(Node node: admm.nodesII.values()){
+            max = Math.max(max, node.residuals[0]);
+        }
+        return max;
+    }
+
+    @Override
+    public double getDualResidual() {
+        double max = 0;
+        for(Node node: admm.nodesII.values()){
+            max = Math.max(max, node.residuals[1]);
+        }
+        return max;
+    }
+
+    @Override
+    public long getControllerRounds() {
+        return controllerWait.count;
+    }
+
+    @Override
+    public double getControllerWaitMeanMicros() {
+        return controllerWait.getMean() / 1e3;
+    }
+
+    @Override
+    public double getControllerWaitP99Micros() {
+        return controllerWait.getQuantile(0.99) / 1e3;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+/**
+ * Management interface of the metrics of a run, times in microseconds
+ *
+ * @author Roman Denysiuk
+ */
+public interface AdmmMetricsMBean {
+
+    public int getIterations();
+
+    public double getIterationsPerSecond();
+
+    public double getPrimalResidual();
+
+    public double getDualResidual();
+
+    public long getControllerRounds();
+
+    public double getControllerWaitMeanMicros();
+
+    public double getControllerWaitP99Micros();
+}
@@ -6,9 +6,12 @@
 package org.admm4j.impl.base;
 
 import org.admm4j.core.Node;
+import org.admm4j.impl.jfr.Events;
+import org.admm4j.impl.jfr.ReceiveEvent;
+import org.admm4j.impl.jfr.SendEvent;
+import org.admm4j.impl.jfr.SolveEvent;
 
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 
 /**
  * Implements a computing agent associated with a node of type I
@@ -17,31 +20,59 @@ import java.util.concurrent.BlockingQueue;
  */
 public class AgentI implements Runnable {
     
-    Node node;
-    Map<String, BlockingQueue> queues;
-    boolean stopping;
+    public Node node;
+    public Map<String, Mailbox> queues;
+    public boolean stopping;
+    public MessagePool outbox; // message reused for each neighbor
+    public boolean first = true; // no variables have been received yet
+    public int iteration = 0; // local iteration counter
     
-    public AgentI(Node node, Map<String, BlockingQueue> queues){
+    public AgentI(Node node, Map<String, Mailbox> queues){
         this.node = node;
         this.queues = queues;
+        this.outbox = new MessagePool(node.name);
     }
     
     @Override
     public void run() {
         while(true){
             // recieve vars and mults
+            ReceiveEvent received = Events.receive();
+            long start = System.nanoTime();
             receiveVariables();
+            if(node.metrics != null){
+                node.metrics.receive.add(System.nanoTime() - start);
+            }
+            if(received != null){
+                received.commit(node, iteration);
+            }
             
             // check convergence from controller
             if(stopping){
                 break;
             }
             
+            // keep sent vars intact if double buffered
+            node.swapVariables();
+            
             // eval proximal operator
-            node.solve();
+            SolveEvent solved = Events.solve();
+            node.timedSolve();
+            if(solved != null){
+                solved.commit(node, iteration);
+            }
             
             // send vars
+            SendEvent sent = Events.send();
+            start = System.nanoTime();
             sendVariables();
+            if(node.metrics != null){
+                node.metrics.send.add(System.nanoTime() - start);
+            }
+            if(sent != null){
+                sent.commit(node, iteration);
+            }
+            iteration++;
         }
     }
     
@@ -49,20 +80,27 @@ public class AgentI implements Runnable {
     public void receiveVariables(){
         
         int count = node.neighbors.size();
-        BlockingQueue queue = queues.get(node.name);
+        Mailbox queue = queues.get(node.name);
         Message message = null;
         
         while(count > 0){
             try {
-                message = (Message) queue.take();
-                node.neighborVariables.put(message.sender, message.variables);
-                node.multipliers.put(message.sender, message.multipliers);
+                message = queue.take();
+                if(node.proximalMessages){
+                    node.setProximalPoint(message.sender, message.variables, message.scalingParameter, first);
+                }
+                else{
+                    node.neighborVariables.put(message.sender, message.variables);
+                    node.multipliers.put(message.sender, message.multipliers);
+                    node.setScalingParameter(message.sender, message.scalingParameter);
+                }
             } catch (InterruptedException ex) {
                 System.err.println(ex);
             }
             count--;
         }
         
+        first = false;
         stopping = message.stopping;
     }
     
@@ -70,11 +108,13 @@ public class AgentI implements Runnable {
     public void sendVariables(){
         for(String neighbor: node.neighbors){
             
-            Message message = new Message();
-            message.sender = node.name;
+            Message message = outbox.get(neighbor);
             message.variables = node.variables.get(neighbor);
+            if(node.metrics != null){
+                node.metrics.addBytes(message.variables, null);
+            }
             
-            BlockingQueue queue = queues.get(neighbor);
+            Mailbox queue = queues.get(neighbor);
             
             try {
                 queue.put(message);
@@ -6,8 +6,11 @@
 package org.admm4j.impl.base;
 
 import org.admm4j.core.Node;
+import org.admm4j.impl.jfr.Events;
+import org.admm4j.impl.jfr.ReceiveEvent;
+import org.admm4j.impl.jfr.SendEvent;
+import org.admm4j.impl.jfr.SolveEvent;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 
 /**
  * Implements a computing agent associated with a node of type II
@@ -16,22 +19,35 @@ import java.util.concurrent.BlockingQueue;
  */
 public class AgentII implements Runnable {
     
-    Node node;
-    Map<String, BlockingQueue> queues;
-    boolean stopping;
+    public Node node;
+    public Map<String, Mailbox> queues;
+    public boolean stopping;
+    public MessagePool outbox; // message reused for each neighbor and controller
+    public ResidualAccumulator accumulator; // shared by agents II and controller
+    public int iteration; // local iteration counter
     
-    public AgentII(Node node, Map<String, BlockingQueue> queues){
+    public AgentII(Node node, Map<String, Mailbox> queues){
         this.node = node;
         this.queues = queues;
+        this.outbox = new MessagePool(node.name);
     }
     
     @Override
     public void run() {
         stopping = false;
+        iteration = 0;
         
         while(true){
             // send variables, multipliers, and stopping criterion
+            SendEvent sent = Events.send();
+            long start = System.nanoTime();
             sendVariables();
+            if(node.metrics != null){
+                node.metrics.send.add(System.nanoTime() - start);
+            }
+            if(sent != null){
+                sent.commit(node, iteration);
+            }
             
             // check convergence from controller
             if(stopping){
@@ -39,39 +55,81 @@ public class AgentII implements Runnable {
             }
             
             // recieve vars and mults
+            ReceiveEvent received = Events.receive();
+            start = System.nanoTime();
             receiveVariables();
+            if(node.metrics != null){
+                node.metrics.receive.add(System.nanoTime() - start);
+            }
+            if(received != null){
+                received.commit(node, iteration);
+            }
             
-            // set previous varibles
-            node.updatePreviousVariables();
-            
-            // eval proximal operator
-            node.solve();
-            
-            // update multipliers
-            node.updateMultipliers();
-            
-            // eval residuals
-            node.updateResiduals();
-            
-            // send local convergence
-            sendResiduals();
+            // update vars, mults, and residuals
+            update();
+            iteration++;
             
-            // check convergence from controller
-            receiveStopping();
+            // stopping is checked only at some iterations
+            if(accumulator.isCheckIteration(iteration)){
+                
+                // send local convergence
+                sendResiduals();
+
+                // check convergence from controller
+                start = System.nanoTime();
+                receiveStopping();
+                if(node.metrics != null){
+                    node.metrics.stopping.add(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+    
+    // local ADMM step of node II
+    public void update(){
+        
+        // set previous varibles
+        node.updatePreviousVariables();
+
+        // eval proximal operator
+        SolveEvent solved = Events.solve();
+        node.timedSolve();
+        if(solved != null){
+            solved.commit(node, iteration);
         }
+
+        // update multipliers
+        node.updateMultipliers();
+
+        // eval residuals
+        node.updateResiduals();
+        
+        // adapt scaling parameters
+        node.updateScalingParameters();
+        
+        // extrapolate vars and mults
+        node.accelerate();
     }
     
     // communicates vars, mults, and stopping to neighboring agentI
     public void sendVariables(){
         for(String neighbor: node.neighbors){
             
-            Message message = new Message();
-            message.sender = node.name;
-            message.variables = node.variables.get(neighbor);
-            message.multipliers = node.multipliers.get(neighbor);
+            Message message = outbox.get(neighbor);
+            if(node.proximalMessages){
+                message.variables = node.getNeighborProximalPoint(neighbor);
+            }
+            else{
+                message.variables = node.variables.get(neighbor);
+                message.multipliers = node.multipliers.get(neighbor);
+            }
+            message.scalingParameter = node.getScalingParameter(neighbor);
             message.stopping = stopping;
+            if(node.metrics != null){
+                node.metrics.addBytes(message.variables, node.proximalMessages ? null : message.multipliers);
+            }
             
-            BlockingQueue queue = queues.get(neighbor);
+            Mailbox queue = queues.get(neighbor);
             
             try {
                 queue.put(message);
@@ -85,11 +143,11 @@ public class AgentII implements Runnable {
     public void receiveVariables(){
         
         int count = node.neighbors.size();
-        BlockingQueue queue = queues.get(node.name);
+        Mailbox queue = queues.get(node.name);
         
         while(count > 0){
             try {
-                Message message = (Message) queue.take();
+                Message message = queue.take();
                 node.neighborVariables.put(message.sender, message.variables);
             } catch (InterruptedException ex) {
                 System.err.println(ex);
@@ -98,14 +156,19 @@ public class AgentII implements Runnable {
         }
     }
     
-    // sends residuals to controller
+    // adds residuals to the accumulator, the last one of the round wakes the controller
     public void sendResiduals(){
+        if(accumulator.add(node.residuals)){
+            wakeController();
+        }
+    }
+    
+    public void wakeController(){
         
-        Message message = new Message();
-        message.sender = node.name;
-        message.residuals = node.residuals;
+        Message message = outbox.get("ADMM");
+        message.iteration = iteration;
         
-        BlockingQueue queue = queues.get("ADMM");
+        Mailbox queue = queues.get("ADMM");
         
         try {
             queue.put(message);
@@ -118,8 +181,8 @@ public class AgentII implements Runnable {
     public void receiveStopping(){
         
         try {
-            BlockingQueue queue = queues.get(node.name);
-            Message message = (Message) queue.take();
+            Mailbox queue = queues.get(node.name);
+            Message message = queue.take();
             stopping = message.stopping;
         } catch (InterruptedException ex) {
             System.err.println(ex);
@@ -0,0 +1,252 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import org.admm4j.core.Node;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Implements Anderson acceleration of ADMM seen as a fixed-point iteration s = g(s)
+ * The state s consists of the variables and multipliers of all nodes II,
+ * g is the iteration of all nodes (all iterations between two checks of stopping)
+ * The controller calls update while all agents II wait for stopping,
+ * the next state is then the combination of the last images g which best cancels
+ * the differences of residuals f = g(s) - s over a window of memory steps
+ *
+ * Safeguard: an accelerated state is accepted only if its residual is smaller than
+ * the residual of the last accepted state by the factor decrease, otherwise
+ * the history is cleared and the iteration continues from the plain image of that state
+ * Without the required decrease, accepted states drifted along directions
+ * of nearly constant residual on the LP examples and never converged
+ *
+ * @author Roman Denysiuk
+ */
+public class AndersonAcceleration {
+
+    public int memory; // number of differences kept
+    public double regularization = 1e-10; // relative to the largest diagonal of the normal equations
+    public double decrease = 0.99; // required decrease of the residual by an accelerated state
+    public int accepted = 0; // accelerated states accepted
+    public int rejected = 0; // accelerated states dropped by the safeguard
+
+    List<Node> nodes;
+    double[] state; // s given to the iteration
+    double[] image; // g(s)
+    double[] residual; // f = g(s) - s
+    double[] previousImage;
+    double[] previousResidual;
+    double[][] differencesF; // ring buffer of differences of f
+    double[][] differencesG; // ring buffer of differences of g
+    int count = 0; // number of differences in the buffers
+    int head = 0; // next slot of the buffers
+    double best = Double.POSITIVE_INFINITY; // norm of residual of the last accepted state
+    double scaling = Double.NaN; // sum of scaling parameters, history is invalid when it changes
+    boolean accelerated = false; // state is an accelerated one
+
+    public AndersonAcceleration(Collection<Node> nodes, int memory){
+        this.nodes = new ArrayList(nodes);
+        this.memory = memory;
+    }
+
+    // called by the controller while all agents II wait
+    public void update(){
+
+        if(state == null){
+            allocate();
+            read(state);
+            scaling = getScaling();
+            return;
+        }
+
+        read(image);
+        double norm = 0;
+        for(int i = 0; i < image.length; i++){
+            residual[i] = image[i] - state[i];
+            norm += residual[i] * residual[i];
+        }
+        norm = Math.sqrt(norm);
+
+        // scaled multipliers changed, previous states are not comparable
+        double s = getScaling();
+        if(s != scaling){
+            scaling = s;
+            clear();
+            best = Double.POSITIVE_INFINITY;
+            accelerated = false;
+        }
+
+        // safeguard: continue from the plain image of the accelerated state
+        if(accelerated && !(norm < decrease * best)){
+            rejected++;
+            clear();
+            best = norm;
+            accelerated = false;
+            System.arraycopy(image, 0, state, 0, image.length);
+            return;
+        }
+        if(accelerated){
+            accepted++;
+        }
+        best = norm;
+
+        if(previousImage != null){
+            double[] dF = differencesF[head];
+            double[] dG = differencesG[head];
+            for(int i = 0; i < image.length; i++){
+                dF[i] = residual[i] - previousResidual[i];
+                dG[i] = image[i] - previousImage[i];
+            }
+            head = (head + 1) % memory;
+            count = Math.min(count + 1, memory);
+        }
+        else{
+            previousImage = new double[image.length];
+            previousResidual = new double[image.length];
+        }
+        System.arraycopy(image, 0, previousImage, 0, image.length);
+        System.arraycopy(residual, 0, previousResidual, 0, residual.length);
+
+        double[] gamma = count > 0 ? solve() : null;
+        accelerated = (gamma != null);
+        System.arraycopy(image, 0, state, 0, image.length);
+        if(accelerated){
+            for(int j = 0; j < count; j++){
+                double[] dG = differencesG[j];
+                for(int i = 0; i < state.length; i++){
+                    state[i] -= gamma[j] * dG[i];
+                }
+            }
+        }
+        write(state);
+    }
+
+    // coefficients minimizing ||f - dF*gamma||, null if the problem is singular
+    double[] solve(){
+
+        int m = count;
+        double[][] a = new double[m][m + 1];
+        double diagonal = 0;
+        for(int j = 0; j < m; j++){
+            for(int k = 0; k <= j; k++){
+                double dot = dot(differencesF[j], differencesF[k]);
+                a[j][k] = dot;
+                a[k][j] = dot;
+            }
+            a[j][m] = dot(differencesF[j], residual);
+            diagonal = Math.max(diagonal, a[j][j]);
+        }
+        if(!(diagonal > 0)){
+            return null;
+        }
+        for(int j = 0; j < m; j++){
+            a[j][j] += regularization * diagonal;
+        }
+
+        // gaussian elimination with partial pivoting
+        for(int c = 0; c < m; c++){
+            int pivot = c;
+            for(int r = c + 1; r < m; r++){
+                if(Math.abs(a[r][c]) > Math.abs(a[pivot][c])){
+                    pivot = r;
+                }
+            }
+            double[] row = a[c];
+            a[c] = a[pivot];
+            a[pivot] = row;
+            if(a[c][c] == 0){
+                return null;
+            }
+            for(int r = c + 1; r < m; r++){
+                double factor = a[r][c] / a[c][c];
+                for(int k = c; k <= m; k++){
+                    a[r][k] -= factor * a[c][k];
+                }
+            }
+        }
+        double[] gamma = new double[m];
+        for(int r = m - 1; r >= 0; r--){
+            double sum = a[r][m];
+            for(int k = r + 1; k < m; k++){
+                sum -= a[r][k] * gamma[k];
+            }
+            gamma[r] = sum / a[r][r];
+        }
+        for(double g: gamma){
+            if(Double.isNaN(g) || Double.isInfinite(g)){
+                return null;
+            }
+        }
+        return gamma;
+    }
+
+    void allocate(){
+        int size = 0;
+        for(Node node: nodes){
+            for(String neighbor: node.neighbors){
+                size += 2 * node.numVariables.get(neighbor);
+            }
+        }
+        state = new double[size];
+        image = new double[size];
+        residual = new double[size];
+        differencesF = new double[memory][size];
+        differencesG = new double[memory][size];
+    }
+
+    void clear(){
+        count = 0;
+        head = 0;
+        previousImage = null;
+        previousResidual = null;
+    }
+
+    double getScaling(){
+        double sum = 0;
+        for(Node node: nodes){
+            for(String neighbor: node.neighbors){
+                sum += node.scalingParameters.get(neighbor);
+            }
+        }
+        return sum;
+    }
+
+    // copies variables and multipliers of nodes II into the array
+    void read(double[] s){
+        int k = 0;
+        for(Node node: nodes){
+            for(String neighbor: node.neighbors){
+                int n = node.numVariables.get(neighbor);
+                System.arraycopy(node.variables.get(neighbor), 0, s, k, n);
+                System.arraycopy(node.multipliers.get(neighbor), 0, s, k + n, n);
+                k += 2 * n;
+            }
+        }
+    }
+
+    // copies the array into variables and multipliers of nodes II
+    void write(double[] s){
+        int k = 0;
+        for(Node node: nodes){
+            for(String neighbor: node.neighbors){
+                int n = node.numVariables.get(neighbor);
+                System.arraycopy(s, k, node.variables.get(neighbor), 0, n);
+                System.arraycopy(s, k + n, node.multipliers.get(neighbor), 0, n);
+                k += 2 * n;
+            }
+        }
+    }
+
+    static double dot(double[] a, double[] b){
+        double sum = 0;
+        for(int i = 0; i < a.length; i++){
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
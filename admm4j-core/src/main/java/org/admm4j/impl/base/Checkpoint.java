@@ -0,0 +1,224 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import org.admm4j.core.Node;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Implements binary checkpoints of the state of all nodes
+ * A checkpoint holds the iteration and, for each edge of each node, rho followed by
+ * the variables, multipliers, and previous variables as raw doubles
+ *
+ * The controller copies the state into a buffer while all agents wait for stopping,
+ * a background thread writes the buffer to a temporary file through a channel
+ * and moves it over the checkpoint, so the last complete checkpoint is never lost
+ * A checkpoint due while the previous one is still being written is skipped
+ *
+ * Restoring maps the file and copies the arrays into the nodes of the same names,
+ * nodes which are not in the checkpoint keep their state
+ *
+ * @author Roman Denysiuk
+ */
+public class Checkpoint {
+
+    static final int MAGIC = 0x41444D4D; // ADMM
+    static final int VERSION = 1;
+
+    public Path path;
+    public volatile int written = 0; // checkpoints written to the file
+    public int skipped = 0; // checkpoints skipped while the previous one was being written
+
+    List<Node> nodes;
+    ByteBuffer buffer; // state copied by the controller, reused
+    ExecutorService writer;
+    Future<?> pending; // write in progress
+
+    public Checkpoint(String file, Collection<Node> nodesI, Collection<Node> nodesII){
+        this.path = Paths.get(file);
+        this.nodes = new ArrayList(nodesI);
+        this.nodes.addAll(nodesII);
+    }
+
+    /**
+     * copies the state of all nodes and writes it in the background,
+     * called while all agents wait, the last checkpoint of a run is waited for
+     */
+    public void save(int iteration, boolean last){
+        if(pending != null && !pending.isDone()){
+            if(!last){
+                skipped++;
+                return;
+            }
+            await();
+        }
+
+        if(buffer == null){
+            buffer = ByteBuffer.allocateDirect(getSize());
+        }
+        ((Buffer) buffer).clear();
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(iteration);
+        buffer.putInt(nodes.size());
+        for(Node node: nodes){
+            putString(buffer, node.name);
+            buffer.put((byte) node.type);
+            buffer.putInt(node.neighbors.size());
+            for(String neighbor: node.neighbors){
+                int n = node.numVariables.get(neighbor);
+                putString(buffer, neighbor);
+                buffer.putInt(n);
+                buffer.putDouble(node.scalingParameters.get(neighbor));
+                putArray(buffer, node.variables.get(neighbor), n);
+                putArray(buffer, node.multipliers.get(neighbor), n);
+                putArray(buffer, node.previousVariables.get(neighbor), n);
+            }
+        }
+        ((Buffer) buffer).flip();
+
+        if(writer == null){
+            writer = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pending = writer.submit(this::write);
+        if(last){
+            await();
+            writer.shutdown();
+        }
+    }
+
+    // writes the buffer to a temporary file and replaces the checkpoint with it
+    void write(){
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+                ByteBuffer data = buffer.duplicate();
+                while(data.hasRemaining()){
+                    channel.write(data);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written++;
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+
+    // waits for the write in progress
+    public void await(){
+        try {
+            pending.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            System.err.println(ex);
+        }
+    }
+
+    // bytes of a checkpoint of the nodes
+    int getSize(){
+        int size = 16;
+        for(Node node: nodes){
+            size += 2 + node.name.getBytes(StandardCharsets.UTF_8).length + 1 + 4;
+            for(String neighbor: node.neighbors){
+                size += 2 + neighbor.getBytes(StandardCharsets.UTF_8).length + 4 + 8;
+                size += 3 * 8 * node.numVariables.get(neighbor);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * copies the state from a checkpoint into the nodes of the same names,
+     * returns the iteration of the checkpoint
+     */
+    public static int restore(String file, Map<String, Node> nodesI, Map<String, Node> nodesII){
+
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)){
+
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(data.getInt() != MAGIC || data.getInt() != VERSION){
+                throw new IllegalArgumentException("Not a checkpoint: " + file);
+            }
+            int iteration = data.getInt();
+            int count = data.getInt();
+
+            for(int k = 0; k < count; k++){
+                String name = getString(data);
+                int type = data.get();
+                int degree = data.getInt();
+
+                // nodes hosted by other processes are skipped
+                Node node = (type == 1) ? nodesI.get(name) : nodesII.get(name);
+
+                for(int j = 0; j < degree; j++){
+                    String neighbor = getString(data);
+                    int n = data.getInt();
+                    double rho = data.getDouble();
+                    if(node == null){
+                        ((Buffer) data).position(data.position() + 3 * 8 * n);
+                        continue;
+                    }
+                    if(!node.numVariables.containsKey(neighbor) || node.numVariables.get(neighbor) != n){
+                        throw new IllegalArgumentException("Checkpoint does not match edge " + name + "-" + neighbor);
+                    }
+                    getArray(data, node.variables.get(neighbor), n);
+                    getArray(data, node.multipliers.get(neighbor), n);
+                    getArray(data, node.previousVariables.get(neighbor), n);
+                    node.setScalingParameter(neighbor, rho);
+                }
+            }
+            return iteration;
+
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static void putString(ByteBuffer buffer, String s){
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putArray(ByteBuffer buffer, double[] a, int n){
+        buffer.asDoubleBuffer().put(a, 0, n);
+        ((Buffer) buffer).position(buffer.position() + 8 * n);
+    }
+
+    static void getArray(ByteBuffer buffer, double[] a, int n){
+        buffer.asDoubleBuffer().get(a, 0, n);
+        ((Buffer) buffer).position(buffer.position() + 8 * n);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import java.util.List;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Abstract class representing a mailbox of a computing agent
+ * Messages are put by the neighbors (senders) and taken by the owner
+ * 
+ * @author Roman Denysiuk
+ */
+public abstract class Mailbox {
+    
+    /**
+     * called once before use
+     * senders - names of agents which put messages into this mailbox
+     * capacity - number of messages each sender may have in this mailbox
+     */
+    public abstract void initialize(List<String> senders, int capacity);
+    
+    // puts message, waits if there is no space
+    public abstract void put(Message message) throws InterruptedException;
+    
+    // takes message, waits if there is no message
+    public abstract Message take() throws InterruptedException;
+    
+    // takes message or returns null if there is no message
+    public abstract Message poll();
+    
+    
+    public static Mailbox instantiate(String mailboxClass, List<String> senders, int capacity){
+        
+        // INSTANTIATE OBJECT
+        Mailbox mailbox = null;
+        try {
+            Class<?> clazz = Class.forName(mailboxClass); // mailboxClass - full path of the class
+            Constructor<?> constructor = clazz.getConstructor();
+            mailbox = (Mailbox) constructor.newInstance();
+        } catch (ClassNotFoundException | IllegalAccessException | IllegalArgumentException | InstantiationException | NoSuchMethodException | SecurityException | InvocationTargetException ex) {
+            System.err.println(ex);
+        }
+        
+        mailbox.initialize(senders, capacity);
+        
+        return mailbox;
+    }
+}
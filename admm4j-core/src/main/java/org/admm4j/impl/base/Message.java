@@ -12,13 +12,16 @@ package org.admm4j.impl.base;
  */
 public class Message {
     
-    String sender = null;
+    public String sender = null;
     
-    double[] variables = null;
+    public double[] variables = null;
     
-    double[] multipliers = null;
+    public double[] multipliers = null;
     
-    double[] residuals = null;
+    public double[] residuals = null;
     
-    boolean stopping = false;
+    public boolean stopping = false;
+    
+    public int iteration = 0; // iteration of sender's data
+    public double scalingParameter = 0; // rho of the edge if adapted by sender node II, 0 otherwise
 }
@@ -0,0 +1,40 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * Implements a pool of messages owned by a single sender
+ * Each outgoing edge has its own message which is reused in every iteration
+ *
+ * Reusing is safe when a message is taken by the receiver before
+ * the sender writes to the same edge again, which holds whenever
+ * the sender waits for a reply in between, as agents of the base engine do
+ *
+ * @author Roman Denysiuk
+ */
+public class MessagePool {
+
+    public String sender;
+    public Map<String, Message> messages = new HashMap();
+
+    public MessagePool(String sender){
+        this.sender = sender;
+    }
+
+    // returns the message of the edge to the given receiver
+    public Message get(String receiver){
+        Message message = messages.get(receiver);
+        if(message == null){
+            message = new Message();
+            message.sender = sender;
+            messages.put(receiver, message);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Implements a mailbox as a blocking queue shared by all senders
+ * The queue is backed by an array, so putting a message does not allocate
+ * 
+ * @author Roman Denysiuk
+ */
+public class QueueMailbox extends Mailbox {
+    
+    BlockingQueue<Message> queue;
+    
+    @Override
+    public void initialize(List<String> senders, int capacity){
+        queue = new ArrayBlockingQueue(Math.max(1, senders.size() * capacity)); // a mailbox may have no senders
+    }
+    
+    @Override
+    public void put(Message message) throws InterruptedException {
+        queue.put(message);
+    }
+    
+    @Override
+    public Message take() throws InterruptedException {
+        return queue.take();
+    }
+    
+    @Override
+    public Message poll() {
+        return queue.poll();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Reduces residuals of agents II concurrently, without messages to the controller
+ * Stopping criteria are checked every checkFrequency iterations and at the iteration limit,
+ * agents II report their residuals and wait for stopping only at these iterations
+ * The agent whose report completes a round is told so and wakes the controller
+ *
+ * @author Roman Denysiuk
+ */
+public class ResidualAccumulator {
+
+    public int checkFrequency; // iterations between checks of stopping criteria
+    public int iterLimit;
+    public double tolPrimal;
+    public double tolDual;
+
+    int numReports; // reports expected in the current round
+    AtomicInteger reports = new AtomicInteger();
+    AtomicInteger unconverged = new AtomicInteger();
+    DoubleAccumulator maxPrimal = new DoubleAccumulator(Math::max, 0);
+    DoubleAccumulator maxDual = new DoubleAccumulator(Math::max, 0);
+
+    public ResidualAccumulator(int checkFrequency, int iterLimit, double tolPrimal, double tolDual){
+        this.checkFrequency = Math.max(1, checkFrequency);
+        this.iterLimit = iterLimit;
+        this.tolPrimal = tolPrimal;
+        this.tolDual = tolDual;
+    }
+
+    public boolean isCheckIteration(int iteration){
+        return (iteration % checkFrequency == 0) || (iteration >= iterLimit);
+    }
+
+    // returns the first check iteration after the given one
+    public int nextCheck(int iteration){
+        long next = ((long) iteration / checkFrequency + 1) * checkFrequency;
+        return (int) Math.min(next, iterLimit);
+    }
+
+    // adds residuals of an agent, returns true if this report completes the round
+    public boolean add(double[] residuals){
+        return add(residuals, true);
+    }
+
+    // residuals which are not accepted count as not converged
+    public boolean add(double[] residuals, boolean accepted){
+        boolean local = accepted && (residuals[0] < tolPrimal) && (residuals[1] < tolDual);
+        if(!local){
+            unconverged.incrementAndGet();
+        }
+        maxPrimal.accumulate(residuals[0]);
+        maxDual.accumulate(residuals[1]);
+        return reports.incrementAndGet() == numReports;
+    }
+
+    public boolean isConverged(){
+        return unconverged.get() == 0;
+    }
+
+    // max primal residual over agents in the current round
+    public double getPrimal(){
+        return maxPrimal.get();
+    }
+
+    // max dual residual over agents in the current round
+    public double getDual(){
+        return maxDual.get();
+    }
+
+    // starts a new round, called while no agent is reporting
+    public void reset(int numReports){
+        this.numReports = numReports;
+        reports.set(0);
+        unconverged.set(0);
+        maxPrimal.reset();
+        maxDual.reset();
+    }
+}
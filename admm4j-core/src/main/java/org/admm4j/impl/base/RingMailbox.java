@@ -0,0 +1,156 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import java.util.List;
+import java.util.HashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implements a lock-free mailbox 
+ * Each sender has its own preallocated single-producer/single-consumer ring buffer,
+ * so there is exactly one producer and one consumer of each buffer
+ * Owner waits for messages by spinning for a while and then parking,
+ * a sender unparks the owner only if the owner is parked
+ * 
+ * @author Roman Denysiuk
+ */
+public class RingMailbox extends Mailbox {
+    
+    public static int CAPACITY = 4; // minimum capacity of a ring buffer, power of 2
+    public static int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0; // spinning is useless on single core
+    public static int YIELDS = 10;
+    
+    Ring[] rings;
+    HashMap<String, Ring> ringsBySender;
+    int cursor; // ring to be checked first by the owner
+    
+    volatile Thread owner; // set while owner is parked
+    
+    @Override
+    public void initialize(List<String> senders, int capacity){
+        int size = CAPACITY;
+        while(size < capacity){
+            size *= 2;
+        }
+        rings = new Ring[senders.size()];
+        ringsBySender = new HashMap();
+        for(int i = 0; i < rings.length; i++){
+            rings[i] = new Ring(size);
+            ringsBySender.put(senders.get(i), rings[i]);
+        }
+    }
+    
+    @Override
+    public void put(Message message) throws InterruptedException {
+        
+        Ring ring = ringsBySender.get(message.sender);
+        
+        // wait for space, owner consumes messages so it is not parked
+        int count = 0;
+        while(!ring.offer(message)){
+            if(Thread.interrupted()){
+                throw new InterruptedException();
+            }
+            backoff(count++);
+        }
+        
+        Thread thread = owner;
+        if(thread != null){
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    @Override
+    public Message take() throws InterruptedException {
+        
+        int count = 0;
+        for(;;){
+            Message message = poll();
+            if(message != null){
+                return message;
+            }
+            if(Thread.interrupted()){
+                throw new InterruptedException();
+            }
+            if(count < SPINS + YIELDS){
+                backoff(count++);
+                continue;
+            }
+            
+            // park, check again after announcing to avoid lost wakeup
+            owner = Thread.currentThread();
+            message = poll();
+            if(message == null){
+                LockSupport.park(this);
+            }
+            owner = null;
+            if(message != null){
+                return message;
+            }
+        }
+    }
+    
+    @Override
+    public Message poll() {
+        int n = rings.length;
+        for(int i = 0; i < n; i++){
+            int k = cursor + i < n ? cursor + i : cursor + i - n;
+            Message message = rings[k].poll();
+            if(message != null){
+                cursor = k + 1 < n ? k + 1 : 0;
+                return message;
+            }
+        }
+        return null;
+    }
+    
+    static void backoff(int count){
+        if(count >= SPINS){
+            Thread.yield();
+        }
+    }
+    
+    /**
+     * Single-producer/single-consumer ring buffer
+     * head is written only by consumer, tail only by producer
+     */
+    static class Ring {
+        
+        final Message[] buffer;
+        final int mask;
+        final AtomicLong head = new AtomicLong();
+        final AtomicLong tail = new AtomicLong();
+        
+        Ring(int capacity){
+            buffer = new Message[capacity];
+            mask = capacity - 1;
+        }
+        
+        boolean offer(Message message){
+            long t = tail.get();
+            if(t - head.get() == buffer.length){
+                return false;
+            }
+            buffer[(int) t & mask] = message;
+            tail.set(t + 1); // publishes message, full fence before owner is read
+            return true;
+        }
+        
+        Message poll(){
+            long h = head.get();
+            if(h == tail.get()){
+                return null;
+            }
+            int k = (int) h & mask;
+            Message message = buffer[k];
+            buffer[k] = null;
+            head.lazySet(h + 1);
+            return message;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.base;
+
+import org.admm4j.core.Node;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Implements a trace of the run, one record at each check of stopping with
+ * the iteration, the elapsed time, and the primal and dual residuals and mean rho of each node II
+ *
+ * The controller only copies the values into a buffer, full buffers are written
+ * by a background thread through a channel and returned for reuse,
+ * the controller waits only if all buffers are waiting to be written
+ *
+ * Formats:
+ *  csv:    header iteration,seconds,<node>.primal,<node>.dual,<node>.rho,... and a line per record,
+ *          text is formatted by the background thread
+ *  binary: big-endian int magic 0x41444D54 (ADMT), int version, int number of nodes II,
+ *          for each node its name (short length and UTF-8 bytes), then records of
+ *          int iteration, long elapsed nanoseconds, and double primal, dual, rho of each node
+ *
+ * @author Roman Denysiuk
+ */
+public class TraceWriter {
+
+    static final int MAGIC = 0x41444D54; // ADMT
+    static final int VERSION = 1;
+    static final int BUFFER_SIZE = 1 << 18; // bytes of a buffer of records
+    static final int BUFFERS = 4;
+
+    public boolean csv;
+    public long records = 0; // records added
+    public int stalls = 0; // times the controller waited for a buffer to be written
+
+    List<Node> nodes;
+    FileChannel channel;
+    ByteBuffer current; // buffer the controller adds records to
+    BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue(BUFFERS);
+    ExecutorService writer;
+    long origin; // nanoTime of the start of the run
+    int recordSize;
+
+    public TraceWriter(String file, boolean csv, Collection<Node> nodesII, long startTime){
+        this.csv = csv;
+        this.nodes = new ArrayList(nodesII);
+        this.origin = System.nanoTime() - 1000000L * (System.currentTimeMillis() - startTime);
+        this.recordSize = 4 + 8 + 3 * 8 * nodes.size();
+        try {
+            channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int size = Math.max(BUFFER_SIZE, recordSize);
+        for(int k = 0; k < BUFFERS; k++){
+            free.add(ByteBuffer.allocateDirect(size));
+        }
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "trace");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(this::writeHeader);
+        current = free.poll();
+    }
+
+    // adds a record, called by the controller at a check of stopping
+    public void add(int iteration){
+        if(current.remaining() < recordSize){
+            flush();
+        }
+        current.putInt(iteration);
+        current.putLong(System.nanoTime() - origin);
+        for(Node node: nodes){
+            current.putDouble(node.residuals[0]);
+            current.putDouble(node.residuals[1]);
+            current.putDouble(getScalingParameter(node));
+        }
+        records++;
+    }
+
+    // mean rho over the edges of the node
+    static double getScalingParameter(Node node){
+        double sum = 0;
+        for(String neighbor: node.neighbors){
+            sum += node.scalingParameters.get(neighbor);
+        }
+        return sum / node.neighbors.size();
+    }
+
+    // hands the current buffer to the background thread and takes a free one
+    void flush(){
+        ByteBuffer full = current;
+        ((Buffer) full).flip();
+        writer.execute(() -> write(full));
+        current = free.poll();
+        if(current == null){
+            stalls++;
+            try {
+                current = free.take();
+            } catch (InterruptedException ex) {
+                System.err.println(ex);
+                current = ByteBuffer.allocateDirect(full.capacity());
+            }
+        }
+    }
+
+    // writes the remaining records and closes the file, called after the last record
+    public void close(){
+        flush();
+        writer.execute(() -> {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                System.err.println(ex);
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+    }
+
+    void writeHeader(){
+        ByteBuffer header;
+        if(csv){
+            StringBuilder sb = new StringBuilder("iteration,seconds");
+            for(Node node: nodes){
+                sb.append(',').append(node.name).append(".primal");
+                sb.append(',').append(node.name).append(".dual");
+                sb.append(',').append(node.name).append(".rho");
+            }
+            header = ByteBuffer.wrap(sb.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+        }
+        else{
+            int size = 12;
+            for(Node node: nodes){
+                size += 2 + node.name.getBytes(StandardCharsets.UTF_8).length;
+            }
+            header = ByteBuffer.allocate(size);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(nodes.size());
+            for(Node node: nodes){
+                Checkpoint.putString(header, node.name);
+            }
+            ((Buffer) header).flip();
+        }
+        writeFully(header);
+    }
+
+    // writes records of the buffer and returns it to the free buffers
+    void write(ByteBuffer buffer){
+        if(csv){
+            StringBuilder sb = new StringBuilder();
+            while(buffer.hasRemaining()){
+                sb.append(buffer.getInt());
+                sb.append(',').append(buffer.getLong() / 1e9);
+                for(int k = 0; k < 3 * nodes.size(); k++){
+                    sb.append(',').append(buffer.getDouble());
+                }
+                sb.append('\n');
+            }
+            writeFully(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        else{
+            writeFully(buffer);
+        }
+        ((Buffer) buffer).clear();
+        free.add(buffer);
+    }
+
+    void writeFully(ByteBuffer data){
+        try {
+            while(data.hasRemaining()){
+                channel.write(data);
+            }
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.bsp;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Phaser;
+
+/**
+ * Implements ADMM algorithm as bulk-synchronous phases over shared memory
+ * No messages are exchanged, nodes read variables of their neighbors directly
+ * Each iteration consists of three phases separated by a barrier:
+ *  1) all nodes I are solved in parallel
+ *  2) all nodes II are solved in parallel
+ *  3) residuals of nodes II are reduced and stopping is checked,
+ *     this phase is skipped between checks of stopping
+ * Nodes are statically partitioned among worker threads,
+ * the calling thread acts as the first worker and as the controller
+ * 
+ * The iterates are identical to those of message based engines
+ * 
+ * @author Roman Denysiuk
+ */
+public class BspAdmm extends Admm {
+    
+    public List<List<Node>> partitionI;
+    public List<List<Node>> partitionII;
+    
+    Phaser phaser;
+    List<Thread> workers;
+    
+    @Override
+    public void execute(){
+        
+        // set params
+        stopping = false;
+        convergence = false;
+        iterCounter = 0;        
+        runTime = 0;
+        startTime = System.currentTimeMillis();
+        
+        // partition nodes among workers
+        build();
+        
+        // start workers except the first one
+        start();
+        
+        try{
+            // the calling thread is worker 0 and controller
+            work(0);
+            
+            // wait for workers to finish
+            await();
+        }
+        finally{
+            shutdown();
+        }
+    }
+    
+    @Override
+    public void build(){
+        
+        int n = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+        n = Math.max(1, Math.min(n, Math.max(nodesI.size(), nodesII.size())));
+        
+        partitionI = new ArrayList();
+        partitionII = new ArrayList();
+        for(int k = 0; k < n; k++){
+            partitionI.add(new ArrayList());
+            partitionII.add(new ArrayList());
+        }
+        
+        int k = 0;
+        for(Node node: nodesI.values()){
+            partitionI.get(k++ % n).add(node);
+        }
+        k = 0;
+        for(Node node: nodesII.values()){
+            partitionII.get(k++ % n).add(node);
+        }
+        
+        phaser = new Phaser(n);
+    }
+    
+    @Override
+    public void start(){
+        workers = new ArrayList();
+        for(int k = 1; k < partitionI.size(); k++){
+            final int worker = k;
+            Thread thread = new Thread(() -> work(worker), "admm4j-bsp-" + worker);
+            thread.setDaemon(true);
+            thread.start();
+            workers.add(thread);
+        }
+    }
+    
+    @Override
+    public void await(){
+        for(Thread thread: workers){
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                System.err.println(ex);
+            }
+        }
+    }
+    
+    @Override
+    public void shutdown(){
+        phaser.forceTermination();
+    }
+    
+    // steps performed by a worker in each iteration
+    public void work(int worker){
+        
+        List<Node> localI = partitionI.get(worker);
+        List<Node> localII = partitionII.get(worker);
+        int iteration = 0;
+        
+        try{
+            while(true){
+                // phase 1: nodes I
+                for(Node node: localI){
+                    receiveI(node);
+                }
+                if(stopping){
+                    break;
+                }
+                for(Node node: localI){
+                    node.swapVariables();
+                    node.timedSolve();
+                }
+                if(!barrier()){
+                    break;
+                }
+
+                // phase 2: nodes II
+                for(Node node: localII){
+                    receiveII(node);
+                    updateII(node);
+                }
+                if(!barrier()){
+                    break;
+                }
+
+                // phase 3: controller, only when stopping is checked
+                if(!accumulator.isCheckIteration(++iteration)){
+                    continue;
+                }
+                if(worker == 0){
+                    control();
+                }
+                if(!barrier()){
+                    break;
+                }
+            }
+        }
+        catch(RuntimeException ex){
+            System.err.println(ex);
+            stopping = true;
+            phaser.forceTermination();
+        }
+    }
+    
+    // returns false if the run has been terminated
+    public boolean barrier(){
+        return phaser.arriveAndAwaitAdvance() >= 0;
+    }
+    
+    // node I takes vars and mults of its neighbors
+    public void receiveI(Node node){
+        for(String neighbor: node.neighbors){
+            Node nodeII = nodesII.get(neighbor);
+            node.neighborVariables.put(neighbor, nodeII.variables.get(node.name));
+            node.multipliers.put(neighbor, nodeII.multipliers.get(node.name));
+            node.setScalingParameter(neighbor, nodeII.getScalingParameter(node.name));
+        }
+    }
+    
+    // node II takes vars of its neighbors
+    public void receiveII(Node node){
+        for(String neighbor: node.neighbors){
+            Node nodeI = nodesI.get(neighbor);
+            node.neighborVariables.put(neighbor, nodeI.variables.get(node.name));
+        }
+    }
+    
+    // local ADMM step of node II
+    public void updateII(Node node){
+        
+        // set previous varibles
+        node.updatePreviousVariables();
+        
+        // eval proximal operator
+        node.timedSolve();
+        
+        // update multipliers
+        node.updateMultipliers();
+        
+        // eval residuals
+        node.updateResiduals();
+        
+        // adapt scaling parameters
+        node.updateScalingParameters();
+        
+        // extrapolate vars and mults
+        node.accelerate();
+    }
+    
+    // reduces residuals of nodes II and checks stopping criteria
+    public void control(){
+        
+        convergence = true;
+        for(Node node: nodesII.values()){
+            boolean local = (node.residuals[0] < tolPrimal) && (node.residuals[1] < tolDual);
+            convergence = (convergence && local);
+        }
+        
+        // update interation and time counters, check stopping criteria
+        updateStopping();
+        
+        // record residuals of nodes II
+        updateTrace();
+        
+        // mix states of nodes II
+        updateAnderson();
+        
+        // save states of all nodes
+        updateCheckpoint();
+        
+        // print current statistics
+        if(verbose > 0 && iterCounter % verbose == 0){
+            printStats();
+        }
+    }
+}
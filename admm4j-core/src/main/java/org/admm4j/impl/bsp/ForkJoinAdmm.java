@@ -0,0 +1,150 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.bsp;
+
+import org.admm4j.core.Node;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implements bulk-synchronous ADMM with cost-aware scheduling 
+ * The time spent by each node in its local step is measured,
+ * and in each phase nodes are submitted to a work-stealing pool
+ * starting from the most expensive one (longest processing time first)
+ * Idle threads take the next most expensive node or steal work, 
+ * so a few expensive nodes do not end up queued behind many cheap ones
+ * 
+ * @author Roman Denysiuk
+ */
+public class ForkJoinAdmm extends BspAdmm {
+    
+    public static double SMOOTHING = 0.2; // weight of the latest measurement in the cost estimate
+    
+    ForkJoinPool pool;
+    List<NodeTask> tasksI;
+    List<NodeTask> tasksII;
+    
+    @Override
+    public void execute(){
+        
+        // set params
+        stopping = false;
+        convergence = false;
+        iterCounter = 0;        
+        runTime = 0;
+        startTime = System.currentTimeMillis();
+        
+        // make pool and tasks
+        build();
+        int iteration = 0;
+        
+        try{
+            while(true){
+                
+                // nodes I
+                if(stopping){
+                    for(Node node: nodesI.values()){
+                        receiveI(node);
+                    }
+                    break;
+                }
+                invoke(tasksI);
+                
+                // nodes II
+                invoke(tasksII);
+                
+                // residuals and stopping
+                if(accumulator.isCheckIteration(++iteration)){
+                    control();
+                }
+            }
+        }
+        catch(RuntimeException ex){
+            System.err.println(ex);
+        }
+        finally{
+            shutdown();
+        }
+    }
+    
+    @Override
+    public void build(){
+        
+        int n = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(n);
+        
+        tasksI = new ArrayList();
+        for(Node node: nodesI.values()){
+            tasksI.add(new NodeTask(node));
+        }
+        tasksII = new ArrayList();
+        for(Node node: nodesII.values()){
+            tasksII.add(new NodeTask(node));
+        }
+    }
+    
+    @Override
+    public void shutdown(){
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+    }
+    
+    // runs one phase, most expensive nodes are submitted first
+    public void invoke(List<NodeTask> tasks){
+        
+        tasks.sort((a, b) -> Double.compare(b.cost, a.cost));
+        
+        for(NodeTask task: tasks){
+            task.reinitialize();
+            pool.execute(task);
+        }
+        
+        // the controller is not a worker of the pool, it only waits for the phase to complete
+        for(NodeTask task: tasks){
+            task.join();
+        }
+    }
+    
+    /**
+     * Local step of a node along with the estimate of its cost
+     */
+    public class NodeTask extends RecursiveAction {
+        
+        public Node node;
+        public double cost; // smoothed time of local step in nanoseconds
+        
+        public NodeTask(Node node){
+            this.node = node;
+        }
+        
+        @Override
+        protected void compute() {
+            
+            long start = System.nanoTime();
+            
+            if(node.type == 1){
+                receiveI(node);
+                node.swapVariables();
+                node.timedSolve();
+            }
+            else{
+                receiveII(node);
+                updateII(node);
+            }
+            
+            double time = System.nanoTime() - start;
+            cost = (cost == 0) ? time : (1 - SMOOTHING) * cost + SMOOTHING * time;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Abstract class representing an encoding of arrays sent between processes
+ * An instance is used by one side of a connection, arrays are identified by their edge
+ * Codecs may keep per-edge state, such as the values known to the receiver,
+ * which stays consistent because messages of a connection are read in the order written
+ *
+ * @author Roman Denysiuk
+ */
+public abstract class ArrayCodec {
+
+    // sets parameters, codecs with parameters override this method
+    public void initialize(JsonObject settings){
+    }
+
+    public abstract void write(DataOutputStream out, String edge, double[] array) throws IOException;
+
+    // returns a new array, not shared with the codec
+    public abstract double[] read(DataInputStream in, String edge) throws IOException;
+
+
+    public static ArrayCodec instantiate(String codecClass, JsonObject settings){
+
+        // INSTANTIATE OBJECT
+        ArrayCodec codec = null;
+        try {
+            Class<?> clazz = Class.forName(codecClass); // codecClass - full path of the class
+            Constructor<?> constructor = clazz.getConstructor();
+            codec = (ArrayCodec) constructor.newInstance();
+        } catch (ClassNotFoundException | IllegalAccessException | IllegalArgumentException | InstantiationException | NoSuchMethodException | SecurityException | InvocationTargetException ex) {
+            System.err.println(ex);
+        }
+
+        codec.initialize(settings);
+
+        return codec;
+    }
+}
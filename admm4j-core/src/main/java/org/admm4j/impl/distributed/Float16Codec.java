@@ -0,0 +1,82 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+/**
+ * Implements differences sent as half precision numbers (IEEE 754 binary16)
+ * Half precision keeps about 3 significant digits and magnitudes up to 65504,
+ * magnitudes below 6e-8 are sent as zero and left to later differences
+ *
+ * @author Roman Denysiuk
+ */
+public class Float16Codec extends QuantizedCodec {
+
+    @Override
+    public int getSize(){
+        return 2;
+    }
+
+    @Override
+    public double getRange(){
+        return 65504;
+    }
+
+    @Override
+    public double put(double delta){
+        short half = toHalf((float) delta);
+        buffer.putShort(half);
+        return toFloat(half);
+    }
+
+    @Override
+    public double get(){
+        return toFloat(buffer.getShort());
+    }
+
+    // rounds to the nearest half, ties away from zero
+    public static short toHalf(float value){
+
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int magnitude = bits & 0x7fffffff;
+
+        if(magnitude >= 0x7f800000){ // infinity or NaN
+            return (short) (sign | 0x7c00 | (magnitude > 0x7f800000 ? 0x200 : 0));
+        }
+        int rounded = magnitude + 0x1000;
+        if(rounded >= 0x47800000){ // overflow
+            return (short) (sign | 0x7c00);
+        }
+        if(rounded >= 0x38800000){ // normal
+            return (short) (sign | ((rounded - 0x38000000) >>> 13));
+        }
+        if(magnitude < 0x33000000){ // below half of the smallest subnormal
+            return (short) sign;
+        }
+
+        // subnormal
+        int exponent = magnitude >>> 23;
+        int mantissa = (magnitude & 0x7fffff) | 0x800000;
+        return (short) (sign | ((mantissa + (0x800000 >>> (exponent - 102))) >>> (126 - exponent)));
+    }
+
+    public static float toFloat(short half){
+
+        int bits = half & 0xffff;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+
+        if(exponent == 0){ // zero or subnormal
+            float value = mantissa * 0x1p-24f;
+            return sign != 0 ? -value : value;
+        }
+        if(exponent == 31){ // infinity or NaN
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+}
@@ -0,0 +1,36 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+/**
+ * Implements differences sent as single precision numbers
+ *
+ * @author Roman Denysiuk
+ */
+public class Float32Codec extends QuantizedCodec {
+
+    @Override
+    public int getSize(){
+        return 4;
+    }
+
+    @Override
+    public double getRange(){
+        return Float.MAX_VALUE;
+    }
+
+    @Override
+    public double put(double delta){
+        float value = (float) delta;
+        buffer.putFloat(value);
+        return value;
+    }
+
+    @Override
+    public double get(){
+        return buffer.getFloat();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.impl.base.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Implements a memory-mapped region holding the arrays of one edge
+ * The sending and the receiving process map the same file,
+ * the sender writes arrays of a message directly into the region and
+ * the receiver copies them into its own arrays
+ *
+ * The region starts with two sequence counters:
+ * the sequence is odd while the sender writes and even once a message is complete,
+ * the acknowledgement is the last sequence the receiver has copied,
+ * the sender waits for it before overwriting the region
+ *
+ * @author Roman Denysiuk
+ */
+public class MappedEdge {
+
+    static final int SEQUENCE = 0;
+    static final int ACKNOWLEDGED = 8;
+    static final int NUM_VARIABLES = 16; // -1 if absent
+    static final int NUM_MULTIPLIERS = 20; // -1 if absent
+    static final int HEADER = 32;
+
+    public File file;
+    public int capacity; // doubles which fit in the region
+
+    RandomAccessFile raf;
+    MappedByteBuffer buffer;
+    DoubleBuffer data;
+    long sequence; // last sequence written or read by this side
+
+    // arrays of the receiving side, reused for every message
+    double[] variables;
+    double[] multipliers;
+
+    MappedEdge(File file, int capacity, boolean create) throws IOException {
+        this.file = file;
+        raf = new RandomAccessFile(file, "rw");
+        if(create){
+            raf.setLength(HEADER + 8L*capacity);
+        }
+        this.capacity = (int) ((raf.length() - HEADER) / 8);
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+        ((Buffer) buffer).position(HEADER);
+        data = buffer.slice().asDoubleBuffer();
+        if(create){
+            buffer.putLong(SEQUENCE, 0);
+            buffer.putLong(ACKNOWLEDGED, 0);
+        }
+    }
+
+    // creates the region of a sender
+    public static MappedEdge create(File file, int capacity) throws IOException {
+        return new MappedEdge(file, capacity, true);
+    }
+
+    // maps the region created by a sender
+    public static MappedEdge open(File file) throws IOException {
+        return new MappedEdge(file, 0, false);
+    }
+
+    // writes arrays of the message, waits until the previous message has been copied
+    public void write(Message message) throws InterruptedException {
+
+        int count = 0;
+        while(buffer.getLong(ACKNOWLEDGED) != sequence){
+            if(Thread.interrupted()){
+                throw new InterruptedException();
+            }
+            if(++count < 100){
+                Thread.yield();
+            }
+            else{
+                Thread.sleep(1);
+            }
+        }
+
+        int size = length(message.variables) + length(message.multipliers);
+        if(size > capacity){
+            throw new IllegalStateException("Message of " + message.sender + " does not fit in " + file);
+        }
+
+        buffer.putLong(SEQUENCE, ++sequence); // odd, writing
+        buffer.putInt(NUM_VARIABLES, message.variables == null ? -1 : message.variables.length);
+        buffer.putInt(NUM_MULTIPLIERS, message.multipliers == null ? -1 : message.multipliers.length);
+        ((Buffer) data).clear();
+        if(message.variables != null){
+            data.put(message.variables);
+        }
+        if(message.multipliers != null){
+            data.put(message.multipliers);
+        }
+        buffer.putLong(SEQUENCE, ++sequence); // even, complete
+    }
+
+    // copies the next message into the arrays of this side and sets them in the message
+    public void read(Message message){
+
+        long start = buffer.getLong(SEQUENCE);
+        if(start != sequence + 2){
+            throw new IllegalStateException("Unexpected sequence " + start + " in " + file);
+        }
+
+        int numVariables = buffer.getInt(NUM_VARIABLES);
+        int numMultipliers = buffer.getInt(NUM_MULTIPLIERS);
+        ((Buffer) data).clear();
+        if(numVariables >= 0){
+            if(variables == null || variables.length != numVariables){
+                variables = new double[numVariables];
+            }
+            data.get(variables);
+        }
+        if(numMultipliers >= 0){
+            if(multipliers == null || multipliers.length != numMultipliers){
+                multipliers = new double[numMultipliers];
+            }
+            data.get(multipliers);
+        }
+
+        // sender must not have started the next message
+        if(buffer.getLong(SEQUENCE) != start){
+            throw new IllegalStateException("Message overwritten while read in " + file);
+        }
+
+        sequence = start;
+        buffer.putLong(ACKNOWLEDGED, sequence);
+        message.variables = numVariables >= 0 ? variables : null;
+        message.multipliers = numMultipliers >= 0 ? multipliers : null;
+    }
+
+    public void close(){
+        try {
+            raf.close();
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+
+    static int length(double[] array){
+        return array == null ? 0 : array.length;
+    }
+}
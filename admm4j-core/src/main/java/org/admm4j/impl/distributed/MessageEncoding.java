@@ -0,0 +1,106 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.impl.base.Message;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Implements a compact binary encoding of messages sent between processes
+ * A message is encoded as the sender, a byte of flags, the iteration,
+ * and the arrays which are present, followed by rho if adapted by the sender
+ * Variables and multipliers are encoded by the given codec, residuals are exact
+ *
+ * An instance is used by a single writer or a single reader of a connection
+ *
+ * @author Roman Denysiuk
+ */
+public class MessageEncoding {
+
+    static final int STOPPING = 1;
+    static final int VARIABLES = 2;
+    static final int MULTIPLIERS = 4;
+    static final int RESIDUALS = 8;
+    static final int SCALING = 16;
+
+    public ArrayCodec codec;
+    RawCodec raw = new RawCodec();
+
+    public MessageEncoding(){
+        codec = raw;
+    }
+
+    public MessageEncoding(ArrayCodec codec){
+        this.codec = codec;
+    }
+
+    public void write(DataOutputStream out, String receiver, Message message) throws IOException {
+
+        int flags = 0;
+        if(message.stopping){
+            flags |= STOPPING;
+        }
+        if(message.variables != null){
+            flags |= VARIABLES;
+        }
+        if(message.multipliers != null){
+            flags |= MULTIPLIERS;
+        }
+        if(message.residuals != null){
+            flags |= RESIDUALS;
+        }
+        if(message.scalingParameter > 0){
+            flags |= SCALING;
+        }
+
+        out.writeUTF(message.sender);
+        out.writeByte(flags);
+        out.writeInt(message.iteration);
+        if(message.variables != null){
+            codec.write(out, getEdge(message.sender, receiver, VARIABLES), message.variables);
+        }
+        if(message.multipliers != null){
+            codec.write(out, getEdge(message.sender, receiver, MULTIPLIERS), message.multipliers);
+        }
+        if(message.residuals != null){
+            raw.write(out, null, message.residuals);
+        }
+        if(message.scalingParameter > 0){
+            out.writeDouble(message.scalingParameter);
+        }
+    }
+
+    // decodes a new message, its arrays are not shared with other messages
+    public Message read(DataInputStream in, String receiver) throws IOException {
+
+        Message message = new Message();
+        message.sender = in.readUTF();
+        int flags = in.readByte();
+        message.iteration = in.readInt();
+        message.stopping = (flags & STOPPING) != 0;
+        if((flags & VARIABLES) != 0){
+            message.variables = codec.read(in, getEdge(message.sender, receiver, VARIABLES));
+        }
+        if((flags & MULTIPLIERS) != 0){
+            message.multipliers = codec.read(in, getEdge(message.sender, receiver, MULTIPLIERS));
+        }
+        if((flags & RESIDUALS) != 0){
+            message.residuals = raw.read(in, null);
+        }
+        if((flags & SCALING) != 0){
+            message.scalingParameter = in.readDouble();
+        }
+        return message;
+    }
+
+    // identifies an array of an edge
+    public static String getEdge(String sender, String receiver, int array){
+        return sender + ">" + receiver + "#" + array;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.impl.base.Message;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Implements the outgoing connection to another process
+ * Each message is written with the name of its receiver and flushed at once,
+ * agents of this process share the connection, so sending is synchronized
+ *
+ * @author Roman Denysiuk
+ */
+public class Peer {
+
+    public int rank;
+    public long bytesSent; // encoded bytes sent to the peer
+
+    Socket socket;
+    DataOutputStream out;
+    MessageEncoding encoding;
+
+    public Peer(int rank, Socket socket, MessageEncoding encoding) throws IOException {
+        this.rank = rank;
+        this.socket = socket;
+        this.encoding = encoding;
+        socket.setTcpNoDelay(true);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+    }
+
+    public synchronized void send(String receiver, Message message) throws IOException {
+        int size = out.size();
+        out.writeUTF(receiver);
+        encoding.write(out, receiver, message);
+        out.flush();
+        bytesSent += out.size() - size;
+    }
+
+    public void close(){
+        try {
+            out.flush();
+            socket.close();
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implements an encoding which sends differences from the values known to the receiver
+ * in a shorter floating point format, extending classes define the format
+ *
+ * Both sides add the same decoded differences to the known values,
+ * so the rounding error of a difference is part of the next one (error feedback)
+ * and does not accumulate over iterations
+ * An array is sent whole the first time and whenever a difference is out of range
+ *
+ * @author Roman Denysiuk
+ */
+public abstract class QuantizedCodec extends RawCodec {
+
+    static final int DENSE = 0;
+    static final int DELTA = 1;
+
+    Map<String, double[]> known = new HashMap(); // values known to the receiver of each edge
+
+    // bytes per encoded difference
+    public abstract int getSize();
+
+    // max magnitude of a difference which can be encoded
+    public abstract double getRange();
+
+    // puts the encoded difference into the buffer, returns its decoded value
+    public abstract double put(double delta);
+
+    // gets the decoded value of the next difference from the buffer
+    public abstract double get();
+
+    @Override
+    public void write(DataOutputStream out, String edge, double[] array) throws IOException {
+
+        out.writeInt(array.length);
+
+        double[] values = known.get(edge);
+        boolean dense = (values == null || values.length != array.length);
+        for(int i = 0; !dense && i < array.length; i++){
+            dense = !(Math.abs(array[i] - values[i]) <= getRange()); // NaN as well
+        }
+        if(dense){
+            values = array.clone();
+            known.put(edge, values);
+            out.writeByte(DENSE);
+            writeValues(out, values);
+            return;
+        }
+
+        out.writeByte(DELTA);
+        int chunk = buffer.capacity() / getSize();
+        for(int i = 0; i < array.length; i += chunk){
+            int length = Math.min(chunk, array.length - i);
+            ((Buffer) buffer).clear();
+            for(int j = i; j < i + length; j++){
+                values[j] += put(array[j] - values[j]);
+            }
+            out.write(buffer.array(), 0, buffer.position());
+        }
+    }
+
+    @Override
+    public double[] read(DataInputStream in, String edge) throws IOException {
+
+        int length = in.readInt();
+        double[] values = known.get(edge);
+        if(values == null || values.length != length){
+            values = new double[length];
+            known.put(edge, values);
+        }
+
+        if(in.readByte() == DENSE){
+            readValues(in, values);
+        }
+        else{
+            int chunk = buffer.capacity() / getSize();
+            for(int i = 0; i < length; i += chunk){
+                int count = Math.min(chunk, length - i);
+                in.readFully(buffer.array(), 0, count*getSize());
+                ((Buffer) buffer).clear();
+                for(int j = i; j < i + count; j++){
+                    values[j] += get();
+                }
+            }
+        }
+        return Arrays.copyOf(values, length);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Implements the exact encoding of arrays: the length followed by raw doubles
+ * Arrays are converted in chunks through a reused buffer
+ *
+ * @author Roman Denysiuk
+ */
+public class RawCodec extends ArrayCodec {
+
+    static final int CHUNK = 1024; // doubles converted at once
+
+    ByteBuffer buffer = ByteBuffer.allocate(8*CHUNK);
+
+    @Override
+    public void write(DataOutputStream out, String edge, double[] array) throws IOException {
+        out.writeInt(array.length);
+        writeValues(out, array);
+    }
+
+    @Override
+    public double[] read(DataInputStream in, String edge) throws IOException {
+        double[] array = new double[in.readInt()];
+        readValues(in, array);
+        return array;
+    }
+
+    public void writeValues(DataOutputStream out, double[] array) throws IOException {
+        for(int i = 0; i < array.length; i += CHUNK){
+            int length = Math.min(CHUNK, array.length - i);
+            ((Buffer) buffer).clear();
+            buffer.asDoubleBuffer().put(array, i, length);
+            out.write(buffer.array(), 0, 8*length);
+        }
+    }
+
+    public void readValues(DataInputStream in, double[] array) throws IOException {
+        for(int i = 0; i < array.length; i += CHUNK){
+            int length = Math.min(CHUNK, array.length - i);
+            in.readFully(buffer.array(), 0, 8*length);
+            ((Buffer) buffer).clear();
+            buffer.asDoubleBuffer().get(array, i, length);
+        }
+    }
+}
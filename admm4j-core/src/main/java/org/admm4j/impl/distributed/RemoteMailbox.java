@@ -0,0 +1,55 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Implements a proxy of the mailbox of an agent hosted by another process
+ * A message is encoded and sent when it is put, so the sender can reuse it,
+ * the receiving process puts the decoded message into the actual mailbox
+ *
+ * @author Roman Denysiuk
+ */
+public class RemoteMailbox extends Mailbox {
+
+    public String receiver;
+    public Peer peer;
+
+    public RemoteMailbox(String receiver, Peer peer){
+        this.receiver = receiver;
+        this.peer = peer;
+    }
+
+    @Override
+    public void initialize(List<String> senders, int capacity){
+    }
+
+    @Override
+    public void put(Message message) throws InterruptedException {
+        try {
+            peer.send(receiver, message);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // messages are taken in the receiving process
+    @Override
+    public Message take() throws InterruptedException {
+        throw new UnsupportedOperationException("Mailbox of " + receiver + " is remote");
+    }
+
+    @Override
+    public Message poll() {
+        throw new UnsupportedOperationException("Mailbox of " + receiver + " is remote");
+    }
+}
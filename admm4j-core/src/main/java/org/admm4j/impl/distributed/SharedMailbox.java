@@ -0,0 +1,84 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.impl.base.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implements a proxy of the mailbox of an agent hosted by a process on the same host
+ * Arrays of a message are written into the memory-mapped region of the edge,
+ * only a short notice with the sender, iteration, and stopping goes over the socket
+ * Each local sender has its own region, created when it puts the first message
+ *
+ * @author Roman Denysiuk
+ */
+public class SharedMailbox extends RemoteMailbox {
+
+    public File directory;
+
+    Map<String, MappedEdge> edges = new ConcurrentHashMap();
+    Map<String, Message> notices = new ConcurrentHashMap();
+
+    public SharedMailbox(String receiver, Peer peer, File directory){
+        super(receiver, peer);
+        this.directory = directory;
+    }
+
+    @Override
+    public void put(Message message) throws InterruptedException {
+        try {
+            MappedEdge edge = edges.get(message.sender);
+            if(edge == null){
+                int capacity = MappedEdge.length(message.variables) + MappedEdge.length(message.multipliers);
+                edge = MappedEdge.create(getFile(directory, message.sender, receiver), capacity);
+                edges.put(message.sender, edge);
+                notices.put(message.sender, new Message());
+            }
+            edge.write(message);
+
+            Message notice = notices.get(message.sender);
+            notice.sender = message.sender;
+            notice.iteration = message.iteration;
+            notice.stopping = message.stopping;
+            notice.scalingParameter = message.scalingParameter;
+            peer.send(receiver, notice);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // removes regions created by senders of this process
+    public void close(){
+        for(MappedEdge edge: edges.values()){
+            edge.close();
+            edge.file.delete();
+        }
+    }
+
+    // file of the region of an edge, known to both processes
+    public static File getFile(File directory, String sender, String receiver){
+        return new File(directory, encode(sender) + "~" + encode(receiver) + ".edge");
+    }
+
+    static String encode(String name){
+        StringBuilder sb = new StringBuilder();
+        for(char c: name.toCharArray()){
+            if(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.'){
+                sb.append(c);
+            }
+            else{
+                sb.append('%').append(Integer.toHexString(c));
+            }
+        }
+        return sb.toString();
+    }
+}
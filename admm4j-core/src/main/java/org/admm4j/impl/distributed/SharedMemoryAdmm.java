@@ -0,0 +1,92 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements ADMM executed by several processes on the same host
+ * Processes are set up as in the socket engine, but arrays exchanged by nodes
+ * are passed through memory-mapped files, one region per edge,
+ * and sockets carry only short notices and messages of controllers
+ *
+ * Arrays are copied once into the region by the sender and once out of it
+ * by the receiver, instead of being encoded, sent, and decoded
+ *
+ * @author Roman Denysiuk
+ */
+public class SharedMemoryAdmm extends SocketAdmm {
+
+    public File directory; // where regions are created, the same for all processes
+
+    List<SharedMailbox> mailboxes = new ArrayList();
+    Map<String, MappedEdge> incoming = new ConcurrentHashMap();
+
+    @Override
+    public void initialize(JsonObject settings){
+        super.initialize(settings);
+        if(settings.has("sharedDirectory") && !settings.get("sharedDirectory").isJsonNull()){
+            directory = new File(settings.get("sharedDirectory").getAsString());
+        }
+        else{
+            directory = new File(System.getProperty("java.io.tmpdir"), "admm4j-" + getPort(0));
+        }
+    }
+
+    @Override
+    public void build(){
+        directory.mkdirs();
+        super.build();
+    }
+
+    @Override
+    public Mailbox makeRemoteMailbox(String receiver, Peer peer){
+        SharedMailbox mailbox = new SharedMailbox(receiver, peer, directory);
+        mailboxes.add(mailbox);
+        return mailbox;
+    }
+
+    // arrays of a notice are read from the region of its edge
+    @Override
+    public void receive(String receiver, Message message) throws InterruptedException {
+        if(!receiver.equals("CONTROL")){
+            String key = message.sender + "~" + receiver;
+            MappedEdge edge = incoming.get(key);
+            if(edge == null){
+                try {
+                    edge = MappedEdge.open(SharedMailbox.getFile(directory, message.sender, receiver));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                incoming.put(key, edge);
+            }
+            edge.read(message);
+        }
+        super.receive(receiver, message);
+    }
+
+    @Override
+    public void shutdown(){
+        super.shutdown();
+        for(SharedMailbox mailbox: mailboxes){
+            mailbox.close();
+        }
+        for(MappedEdge edge: incoming.values()){
+            edge.close();
+        }
+    }
+}
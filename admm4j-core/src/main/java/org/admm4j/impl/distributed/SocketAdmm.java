@@ -0,0 +1,356 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+import org.admm4j.impl.base.MessagePool;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Implements ADMM executed by several processes communicating over TCP sockets
+ * All processes read the same input, each one hosts a subset of nodes,
+ * nodes of each type are assigned to processes in round-robin order of the input
+ * and a process builds only its own nodes
+ *
+ * Agents are the same as in the base engine, the mailbox of an agent
+ * hosted by another process is a proxy which sends messages over the socket
+ * and a reader thread per incoming connection delivers them to local mailboxes
+ *
+ * Each process reduces residuals of its agents II and process 0 acts as the controller:
+ * other processes send their max residuals to it and receive the stopping decision
+ * With several processes each one writes the trace of its nodes II to traceFile.<rank>
+ *
+ * @author Roman Denysiuk
+ */
+public class SocketAdmm extends Admm {
+
+    public int rank = 0; // index of this process
+    public List<String> hosts = new ArrayList(); // host:port of each process
+    public int connectTimeout = 60000; // time to wait for other processes in ms
+    public String codec = "org.admm4j.impl.distributed.RawCodec"; // full path of the class extending ArrayCodec
+    
+    JsonObject settings; // passed to codecs
+
+    Map<String, Integer> ranks = new HashMap(); // process of each node
+    int[] numNodes = new int[2]; // nodes of each type seen so far
+
+    ServerSocket server;
+    Peer[] peers; // outgoing connections, null for this process
+    List<Thread> readers;
+    volatile boolean closed;
+
+    MessagePool control; // messages between controllers
+    Message decision; // stopping decision received from process 0
+
+    @Override
+    public void initialize(JsonObject settings){
+        super.initialize(settings);
+        if(settings.has("rank")){
+            rank = settings.get("rank").getAsInt();
+        }
+        if(settings.has("hosts") && settings.get("hosts").isJsonArray()){
+            for(JsonElement host: settings.getAsJsonArray("hosts")){
+                hosts.add(host.getAsString());
+            }
+        }
+        if(hosts.isEmpty()){
+            hosts.add("localhost:0"); // single process
+        }
+        if(settings.has("codec")){
+            codec = settings.get("codec").getAsString();
+        }
+        this.settings = settings;
+        control = new MessagePool(getControllerName(rank));
+        andersonMemory = 0; // nodes II of other processes are out of reach of the controller
+        if(hosts.size() > 1){
+            checkpointFile = null; // agents of other processes keep running while the state would be copied
+            if(traceFile != null){
+                traceFile += "." + rank; // each process traces its own nodes II, the same file would be overwritten
+            }
+        }
+    }
+
+    // assigns nodes of each type to processes in round-robin order
+    @Override
+    public boolean isLocal(String name, int type){
+        int owner = numNodes[type-1]++ % hosts.size();
+        ranks.put(name, owner);
+        return owner == rank;
+    }
+
+    @Override
+    public void build(){
+
+        // local agents and their mailboxes
+        super.build();
+
+        if(hosts.size() == 1){
+            return;
+        }
+
+        try {
+            connect();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        // other processes are waited for before the clock starts
+        startTime = System.currentTimeMillis();
+    }
+
+    // connects to all other processes and starts a reader per incoming connection
+    public void connect() throws IOException, InterruptedException {
+
+        server = new ServerSocket(getPort(rank), hosts.size());
+        server.setSoTimeout(connectTimeout);
+
+        // outgoing connections, each starts with the rank of this process
+        peers = new Peer[hosts.size()];
+        for(int r = 0; r < hosts.size(); r++){
+            if(r != rank){
+                Socket socket = connect(getHost(r), getPort(r));
+                new DataOutputStream(socket.getOutputStream()).writeInt(rank);
+                peers[r] = new Peer(r, socket, makeEncoding());
+            }
+        }
+
+        // proxies of mailboxes of neighbors hosted by other processes
+        List<Node> nodes = new ArrayList(nodesI.values());
+        nodes.addAll(nodesII.values());
+        for(Node node: nodes){
+            for(String neighbor: node.neighbors){
+                if(!queues.containsKey(neighbor)){
+                    queues.put(neighbor, makeRemoteMailbox(neighbor, peers[ranks.get(neighbor)]));
+                }
+            }
+        }
+
+        // controller of process 0 receives from all other controllers, the others from process 0
+        List<String> controllers = new ArrayList();
+        for(int r = 0; r < hosts.size(); r++){
+            if(r != rank && (rank == 0 || r == 0)){
+                controllers.add(getControllerName(r));
+            }
+        }
+        queues.put("CONTROL", makeMailbox(controllers));
+
+        // incoming connections, mailboxes are complete before readers start
+        readers = new ArrayList();
+        for(int i = 1; i < hosts.size(); i++){
+            Socket socket = server.accept();
+            socket.setTcpNoDelay(true);
+            new DataInputStream(socket.getInputStream()).readInt(); // rank of the peer
+            Thread reader = new Thread(() -> read(socket));
+            reader.setDaemon(true);
+            reader.start();
+            readers.add(reader);
+        }
+    }
+
+    // retries until the other process listens
+    public Socket connect(String host, int port) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + connectTimeout;
+        while(true){
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException ex) {
+                if(System.currentTimeMillis() > deadline){
+                    throw ex;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    // delivers messages of an incoming connection to local mailboxes
+    public void read(Socket socket){
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            MessageEncoding encoding = makeEncoding();
+            while(true){
+                String receiver;
+                try {
+                    receiver = in.readUTF();
+                } catch (EOFException ex) {
+                    break; // peer has finished
+                }
+                receive(receiver, encoding.read(in, receiver));
+            }
+        } catch (IOException | InterruptedException ex) {
+            if(!closed){
+                System.err.println(ex);
+            }
+        }
+    }
+
+    // encoding of one side of a connection, codecs keep state of the edges
+    public MessageEncoding makeEncoding(){
+        return new MessageEncoding(ArrayCodec.instantiate(codec, settings));
+    }
+    
+    // proxy of the mailbox of an agent hosted by the given process
+    public Mailbox makeRemoteMailbox(String receiver, Peer peer){
+        return new RemoteMailbox(receiver, peer);
+    }
+    
+    // delivers a message received from another process
+    public void receive(String receiver, Message message) throws InterruptedException {
+        queues.get(receiver).put(message);
+    }
+    
+    @Override
+    public void receiveResiduals(){
+
+        if(hosts.size() == 1){
+            super.receiveResiduals();
+            return;
+        }
+
+        try {
+            // local round, a process may host no agents II
+            if(!nodesII.isEmpty()){
+                queues.get("ADMM").take();
+            }
+            residuals = new double[]{accumulator.getPrimal(), accumulator.getDual()};
+            convergence = accumulator.isConverged();
+            accumulator.reset(nodesII.size());
+
+            Mailbox queue = queues.get("CONTROL");
+            if(rank == 0){
+                // max residuals of other processes
+                for(int i = 1; i < hosts.size(); i++){
+                    Message message = queue.take();
+                    convergence &= (message.residuals[0] < tolPrimal) && (message.residuals[1] < tolDual);
+                    residuals[0] = Math.max(residuals[0], message.residuals[0]);
+                    residuals[1] = Math.max(residuals[1], message.residuals[1]);
+                }
+            }
+            else{
+                Message message = control.get("CONTROL");
+                message.residuals = residuals;
+                peers[0].send("CONTROL", message);
+                decision = queue.take();
+            }
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void updateStopping(){
+
+        if(hosts.size() == 1 || rank == 0){
+            super.updateStopping();
+            return;
+        }
+
+        // decided by process 0
+        iterCounter = decision.iteration;
+        runTime = System.currentTimeMillis() - startTime;
+        stopping = decision.stopping;
+    }
+
+    @Override
+    public void sendStopping(){
+
+        if(hosts.size() > 1 && rank == 0){
+            Message message = control.get("CONTROL");
+            message.residuals = null;
+            message.stopping = stopping;
+            message.iteration = iterCounter;
+            try {
+                for(int r = 1; r < hosts.size(); r++){
+                    peers[r].send("CONTROL", message);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        // local agents II
+        super.sendStopping();
+    }
+
+    // closes connections after local agents have finished
+    @Override
+    public void shutdown(){
+        super.shutdown();
+        closed = true;
+        if(peers != null){
+            for(Peer peer: peers){
+                if(peer != null){
+                    peer.close();
+                }
+            }
+        }
+        if(server != null){
+            try {
+                server.close();
+            } catch (IOException ex) {
+                System.err.println(ex);
+            }
+        }
+    }
+
+    @Override
+    public JsonObject getStats(){
+        JsonObject stats = super.getStats();
+        long bytes = getBytesSent();
+        stats.addProperty("bytesSent", bytes);
+        stats.addProperty("bytesPerIteration", iterCounter > 0 ? (double) bytes / iterCounter : 0);
+        return stats;
+    }
+    
+    // encoded bytes sent to other processes
+    public long getBytesSent(){
+        long bytes = 0;
+        if(peers != null){
+            for(Peer peer: peers){
+                if(peer != null){
+                    bytes += peer.bytesSent;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    public String getControllerName(int r){
+        return "ADMM@" + r;
+    }
+
+    public String getHost(int r){
+        String host = hosts.get(r);
+        return host.substring(0, host.lastIndexOf(':'));
+    }
+
+    public int getPort(int r){
+        String host = hosts.get(r);
+        return Integer.parseInt(host.substring(host.lastIndexOf(':') + 1));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements a sparse encoding which sends only coordinates changed by more than a threshold
+ * Both sides keep the values known to the receiver, a coordinate is compared
+ * with its known value rather than with the previous one, so small changes
+ * accumulate until they are sent and the receiver never lags by more than the threshold
+ * An array is sent whole the first time and whenever that is shorter
+ *
+ * @author Roman Denysiuk
+ */
+public class ThresholdCodec extends RawCodec {
+
+    static final int DENSE = 0;
+    static final int SPARSE = 1;
+
+    public double threshold = 1e-6; // max difference between sent and known values
+
+    Map<String, double[]> known = new HashMap(); // values known to the receiver of each edge
+    int[] changed = new int[0];
+
+    @Override
+    public void initialize(JsonObject settings){
+        if(settings.has("codecThreshold")){
+            threshold = settings.get("codecThreshold").getAsDouble();
+        }
+    }
+
+    @Override
+    public void write(DataOutputStream out, String edge, double[] array) throws IOException {
+
+        out.writeInt(array.length);
+
+        double[] values = known.get(edge);
+        if(values == null || values.length != array.length){
+            values = array.clone();
+            known.put(edge, values);
+            out.writeByte(DENSE);
+            writeValues(out, values);
+            return;
+        }
+
+        if(changed.length < array.length){
+            changed = new int[array.length];
+        }
+        int count = 0;
+        for(int i = 0; i < array.length; i++){
+            if(Math.abs(array[i] - values[i]) > threshold){
+                changed[count++] = i;
+                values[i] = array[i];
+            }
+        }
+
+        // an index and a value per coordinate against a value per coordinate
+        if(12*count >= 8*array.length){
+            System.arraycopy(array, 0, values, 0, array.length);
+            out.writeByte(DENSE);
+            writeValues(out, values);
+            return;
+        }
+
+        out.writeByte(SPARSE);
+        out.writeInt(count);
+        for(int k = 0; k < count; k++){
+            out.writeInt(changed[k]);
+            out.writeDouble(values[changed[k]]);
+        }
+    }
+
+    @Override
+    public double[] read(DataInputStream in, String edge) throws IOException {
+
+        int length = in.readInt();
+        double[] values = known.get(edge);
+        if(values == null || values.length != length){
+            values = new double[length];
+            known.put(edge, values);
+        }
+
+        if(in.readByte() == DENSE){
+            readValues(in, values);
+        }
+        else{
+            int count = in.readInt();
+            for(int k = 0; k < count; k++){
+                int i = in.readInt();
+                values[i] = in.readDouble();
+            }
+        }
+        return Arrays.copyOf(values, length);
+    }
+}
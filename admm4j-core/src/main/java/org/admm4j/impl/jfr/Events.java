@@ -0,0 +1,82 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+/**
+ * Makes the flight recorder events of ADMM
+ * Each method begins and returns a new event, or null while no flight recording is running
+ * or if the runtime has no flight recorder (Java 8 before update 262),
+ * so event classes are never loaded there
+ * Events are made only during recordings because making them while no recording was running
+ * took about 9% of the time of an iteration on the LP examples,
+ * checking the flag kept by RecordingListener costs nothing measurable
+ *
+ * A recording of an ADMM run:
+ *  java -XX:StartFlightRecording=filename=admm.jfr,settings=profile ...
+ * or jcmd <pid> JFR.start while it runs, the events are in the category ADMM
+ *
+ * @author Roman Denysiuk
+ */
+public class Events {
+
+    static volatile boolean recording; // a flight recording is running, set by the listener while SUPPORTED is initialized
+    public static final boolean SUPPORTED = isSupported();
+
+    static boolean isSupported(){
+        try {
+            Class.forName("jdk.jfr.FlightRecorderListener");
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+        RecordingListener.install();
+        return true;
+    }
+
+    public static SolveEvent solve(){
+        if(!SUPPORTED || !recording){
+            return null;
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        return event;
+    }
+
+    public static SendEvent send(){
+        if(!SUPPORTED || !recording){
+            return null;
+        }
+        SendEvent event = new SendEvent();
+        event.begin();
+        return event;
+    }
+
+    public static ReceiveEvent receive(){
+        if(!SUPPORTED || !recording){
+            return null;
+        }
+        ReceiveEvent event = new ReceiveEvent();
+        event.begin();
+        return event;
+    }
+
+    public static ResidualsEvent residuals(){
+        if(!SUPPORTED || !recording){
+            return null;
+        }
+        ResidualsEvent event = new ResidualsEvent();
+        event.begin();
+        return event;
+    }
+
+    public static StoppingEvent stopping(){
+        if(!SUPPORTED || !recording){
+            return null;
+        }
+        StoppingEvent event = new StoppingEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import org.admm4j.core.Node;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Event of a phase of a node, tagged with the node and the local iteration of its agent
+ *
+ * @author Roman Denysiuk
+ */
+@Category("ADMM")
+@StackTrace(false)
+public abstract class NodeEvent extends Event {
+
+    @Label("Node")
+    String nodeName;
+
+    @Label("Node Class")
+    String nodeClass;
+
+    @Label("Iteration")
+    int iteration;
+
+    // ends the event and commits it if it is recorded
+    public void commit(Node node, int iteration){
+        end();
+        if(shouldCommit()){
+            this.nodeName = node.name;
+            this.nodeClass = node.getClass().getName();
+            this.iteration = iteration;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Wait for and handling of the messages of the neighbors of a node
+ *
+ * @author Roman Denysiuk
+ */
+@Name("org.admm4j.Receive")
+@Label("Node Receive")
+@Description("Wait for and handling of the messages of the neighbors of a node")
+public class ReceiveEvent extends NodeEvent {
+}
@@ -0,0 +1,42 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Keeps Events.recording set while any flight recording is running,
+ * recordings started before the listener is installed are found when it is installed
+ *
+ * @author Roman Denysiuk
+ */
+class RecordingListener implements FlightRecorderListener {
+
+    static void install(){
+        FlightRecorder.addListener(new RecordingListener());
+    }
+
+    @Override
+    public void recorderInitialized(FlightRecorder recorder){
+        update(recorder);
+    }
+
+    @Override
+    public void recordingStateChanged(Recording recording){
+        update(FlightRecorder.getFlightRecorder());
+    }
+
+    static void update(FlightRecorder recorder){
+        boolean running = false;
+        for(Recording recording: recorder.getRecordings()){
+            running |= (recording.getState() == RecordingState.RUNNING);
+        }
+        Events.recording = running;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Wait of the controller for the residuals of all agents II and their reduction
+ *
+ * @author Roman Denysiuk
+ */
+@Name("org.admm4j.Residuals")
+@Label("Residual Reduction")
+@Category("ADMM")
+@Description("Wait of the controller for the residuals of all agents II and their reduction")
+@StackTrace(false)
+public class ResidualsEvent extends Event {
+
+    @Label("Iteration")
+    int iteration;
+
+    @Label("Primal Residual")
+    double primalResidual;
+
+    @Label("Dual Residual")
+    double dualResidual;
+
+    @Label("Converged")
+    boolean converged;
+
+    // commits the event, ended when the residuals were received, if it is recorded
+    public void commit(int iteration, double primalResidual, double dualResidual, boolean converged){
+        if(shouldCommit()){
+            this.iteration = iteration;
+            this.primalResidual = primalResidual;
+            this.dualResidual = dualResidual;
+            this.converged = converged;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Messages sent by a node to its neighbors
+ *
+ * @author Roman Denysiuk
+ */
+@Name("org.admm4j.Send")
+@Label("Node Send")
+@Description("Messages sent by a node to its neighbors")
+public class SendEvent extends NodeEvent {
+}
@@ -0,0 +1,21 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Proximal operator of a node
+ *
+ * @author Roman Denysiuk
+ */
+@Name("org.admm4j.Solve")
+@Label("Node Solve")
+@Description("Proximal operator of a node")
+public class SolveEvent extends NodeEvent {
+}
@@ -0,0 +1,43 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Decision of the controller whether to stop and its delivery to agents II,
+ * Anderson acceleration and checkpoints made at this point are included
+ *
+ * @author Roman Denysiuk
+ */
+@Name("org.admm4j.Stopping")
+@Label("Stop Decision")
+@Category("ADMM")
+@Description("Decision of the controller whether to stop and its delivery to agents II")
+@StackTrace(false)
+public class StoppingEvent extends Event {
+
+    @Label("Iteration")
+    int iteration;
+
+    @Label("Stopping")
+    boolean stopping;
+
+    // ends the event and commits it if it is recorded
+    public void commit(int iteration, boolean stopping){
+        end();
+        if(shouldCommit()){
+            this.iteration = iteration;
+            this.stopping = stopping;
+            commit();
+        }
+    }
+}
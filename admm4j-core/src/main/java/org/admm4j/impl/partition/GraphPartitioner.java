@@ -0,0 +1,169 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.partition;
+
+import org.admm4j.core.Node;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Partitions the bipartite graph of nodes into groups of balanced size with few cut edges
+ * Groups are grown one after another: starting from a seed, the node with
+ * the most edges into the growing group is added until the group has its share of nodes
+ * Then boundary nodes are moved to the group holding most of their neighbors
+ * while this reduces the cut and the group stays within the allowed imbalance
+ *
+ * @author Roman Denysiuk
+ */
+public class GraphPartitioner {
+
+    public double imbalance = 0.05; // groups may exceed the average size by this fraction
+    public int maxPasses = 10; // passes of refinement
+
+    // returns the group of each node
+    public int[] partition(List<Node> nodes, int numGroups){
+
+        int n = nodes.size();
+        int[][] adjacency = getAdjacency(nodes);
+        int[] group = new int[n];
+        Arrays.fill(group, -1);
+
+        grow(adjacency, group, numGroups);
+        refine(adjacency, group, numGroups);
+
+        return group;
+    }
+
+    // neighbors of each node as indices, edges to unknown nodes are ignored
+    public int[][] getAdjacency(List<Node> nodes){
+
+        Map<String, Integer> index = new HashMap();
+        for(int i = 0; i < nodes.size(); i++){
+            index.put(nodes.get(i).name, i);
+        }
+
+        int[][] adjacency = new int[nodes.size()][];
+        for(int i = 0; i < nodes.size(); i++){
+            List<String> neighbors = nodes.get(i).neighbors;
+            int[] list = new int[neighbors.size()];
+            int count = 0;
+            for(String neighbor: neighbors){
+                Integer j = index.get(neighbor);
+                if(j != null){
+                    list[count++] = j;
+                }
+            }
+            adjacency[i] = Arrays.copyOf(list, count);
+        }
+        return adjacency;
+    }
+
+    public void grow(int[][] adjacency, int[] group, int numGroups){
+
+        int n = group.length;
+        int[] gain = new int[n]; // edges into the growing group
+        int assigned = 0;
+        int seed = 0;
+
+        for(int k = 0; k < numGroups; k++){
+
+            int size = (n - assigned + numGroups - k - 1) / (numGroups - k);
+
+            // most connected first, then in input order
+            PriorityQueue<int[]> frontier = new PriorityQueue<>((a, b) -> a[0] != b[0] ? b[0] - a[0] : a[1] - b[1]);
+            Arrays.fill(gain, 0);
+
+            for(int count = 0; count < size; count++){
+
+                int next = -1;
+                while(!frontier.isEmpty()){
+                    int[] entry = frontier.poll();
+                    if(group[entry[1]] == -1 && gain[entry[1]] == entry[0]){
+                        next = entry[1];
+                        break;
+                    }
+                }
+
+                // no connected node left, start from the first unassigned one
+                if(next == -1){
+                    while(group[seed] != -1){
+                        seed++;
+                    }
+                    next = seed;
+                }
+
+                group[next] = k;
+                assigned++;
+                for(int m: adjacency[next]){
+                    if(group[m] == -1){
+                        frontier.add(new int[]{++gain[m], m});
+                    }
+                }
+            }
+        }
+    }
+
+    public void refine(int[][] adjacency, int[] group, int numGroups){
+
+        int n = group.length;
+        int max = (int) Math.ceil((1 + imbalance) * n / numGroups);
+        int[] sizes = new int[numGroups];
+        for(int g: group){
+            sizes[g]++;
+        }
+
+        int[] edges = new int[numGroups]; // edges of a node into each group
+        for(int pass = 0; pass < maxPasses; pass++){
+            boolean moved = false;
+            for(int v = 0; v < n; v++){
+
+                for(int m: adjacency[v]){
+                    edges[group[m]]++;
+                }
+
+                int best = group[v];
+                for(int m: adjacency[v]){
+                    int g = group[m];
+                    if(edges[g] > edges[best] && sizes[g] < max){
+                        best = g;
+                    }
+                }
+
+                for(int m: adjacency[v]){
+                    edges[group[m]] = 0;
+                }
+
+                if(best != group[v]){
+                    sizes[group[v]]--;
+                    sizes[best]++;
+                    group[v] = best;
+                    moved = true;
+                }
+            }
+            if(!moved){
+                break;
+            }
+        }
+    }
+
+    // edges with ends in different groups, each edge counted once
+    public int countCut(List<Node> nodes, int[] group){
+        int[][] adjacency = getAdjacency(nodes);
+        int cut = 0;
+        for(int v = 0; v < adjacency.length; v++){
+            for(int m: adjacency[v]){
+                if(group[m] != group[v]){
+                    cut++;
+                }
+            }
+        }
+        return cut / 2;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.partition;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+import org.admm4j.impl.base.MessagePool;
+import org.admm4j.impl.base.ResidualAccumulator;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Implements a computing agent running a group of nodes of both types
+ * Neighbors in the same group are read directly as in the bulk-synchronous engine,
+ * neighbors in other groups exchange messages as agents of the base engine do
+ * Each iteration the agent solves its nodes I, then updates its nodes II,
+ * sending results over cut edges as soon as a node is done
+ *
+ * @author Roman Denysiuk
+ */
+public class GroupAgent implements Runnable {
+
+    public String name;
+    public List<Node> nodesI = new ArrayList();
+    public List<Node> nodesII = new ArrayList();
+    public Map<String, Node> local = new HashMap(); // nodes of this group
+    public Map<String, Mailbox> queues;
+    public Map<String, MessagePool> outboxes = new HashMap(); // messages of each node over cut edges
+    public MessagePool outbox; // message to controller
+    public ResidualAccumulator accumulator;
+    public Admm admm; // aborted if a node fails
+    public boolean stopping;
+    public int iteration;
+
+    public GroupAgent(String name, Map<String, Mailbox> queues){
+        this.name = name;
+        this.queues = queues;
+        this.outbox = new MessagePool(name);
+    }
+
+    public void add(Node node){
+        (node.type == 1 ? nodesI : nodesII).add(node);
+        local.put(node.name, node);
+        outboxes.put(node.name, new MessagePool(node.name));
+    }
+
+    @Override
+    public void run() {
+        try {
+            iterate();
+        }
+        catch(RuntimeException ex){
+            admm.abort(ex);
+        }
+    }
+
+    public void iterate() {
+        stopping = false;
+        iteration = 0;
+
+        // initial vars and mults of nodes II
+        for(Node node: nodesII){
+            long start = System.nanoTime();
+            sendII(node);
+            if(node.metrics != null){
+                node.metrics.send.add(System.nanoTime() - start);
+            }
+        }
+
+        while(true){
+            for(Node node: nodesI){
+                long start = System.nanoTime();
+                receiveI(node);
+                if(node.metrics != null){
+                    node.metrics.receive.add(System.nanoTime() - start);
+                }
+            }
+
+            // final vars and mults have been received
+            if(stopping){
+                break;
+            }
+
+            for(Node node: nodesI){
+                node.swapVariables();
+                node.timedSolve();
+                long start = System.nanoTime();
+                sendI(node);
+                if(node.metrics != null){
+                    node.metrics.send.add(System.nanoTime() - start);
+                }
+            }
+
+            for(Node node: nodesII){
+                long start = System.nanoTime();
+                receiveII(node);
+                if(node.metrics != null){
+                    node.metrics.receive.add(System.nanoTime() - start);
+                }
+                updateII(node);
+                start = System.nanoTime();
+                sendII(node);
+                if(node.metrics != null){
+                    node.metrics.send.add(System.nanoTime() - start);
+                }
+            }
+            iteration++;
+
+            // stopping is checked only at some iterations
+            if(accumulator.isCheckIteration(iteration)){
+                sendResiduals();
+
+                // the wait of the group is recorded for each of its nodes II
+                long start = System.nanoTime();
+                receiveStopping();
+                long elapsed = System.nanoTime() - start;
+                for(Node node: nodesII){
+                    if(node.metrics != null){
+                        node.metrics.stopping.add(elapsed);
+                    }
+                }
+            }
+        }
+    }
+
+    // node I takes vars and mults of its neighbors
+    public void receiveI(Node node){
+        int count = 0;
+        for(String neighbor: node.neighbors){
+            Node nodeII = local.get(neighbor);
+            if(nodeII != null){
+                node.neighborVariables.put(neighbor, nodeII.variables.get(node.name));
+                node.multipliers.put(neighbor, nodeII.multipliers.get(node.name));
+                node.setScalingParameter(neighbor, nodeII.getScalingParameter(node.name));
+            }
+            else{
+                count++;
+            }
+        }
+        while(count-- > 0){
+            Message message = take(node.name);
+            node.neighborVariables.put(message.sender, message.variables);
+            node.multipliers.put(message.sender, message.multipliers);
+            node.setScalingParameter(message.sender, message.scalingParameter);
+        }
+    }
+
+    // node II takes vars of its neighbors
+    public void receiveII(Node node){
+        int count = 0;
+        for(String neighbor: node.neighbors){
+            Node nodeI = local.get(neighbor);
+            if(nodeI != null){
+                node.neighborVariables.put(neighbor, nodeI.variables.get(node.name));
+            }
+            else{
+                count++;
+            }
+        }
+        while(count-- > 0){
+            Message message = take(node.name);
+            node.neighborVariables.put(message.sender, message.variables);
+        }
+    }
+
+    // local ADMM step of node II
+    public void updateII(Node node){
+
+        // set previous varibles
+        node.updatePreviousVariables();
+
+        // eval proximal operator
+        node.timedSolve();
+
+        // update multipliers
+        node.updateMultipliers();
+
+        // eval residuals
+        node.updateResiduals();
+        
+        // adapt scaling parameters
+        node.updateScalingParameters();
+        
+        // extrapolate vars and mults
+        node.accelerate();
+    }
+
+    // sends vars to neighbors in other groups
+    public void sendI(Node node){
+        MessagePool pool = outboxes.get(node.name);
+        for(String neighbor: node.neighbors){
+            if(!local.containsKey(neighbor)){
+                Message message = pool.get(neighbor);
+                message.variables = node.variables.get(neighbor);
+                if(node.metrics != null){
+                    node.metrics.addBytes(message.variables, null);
+                }
+                put(neighbor, message);
+            }
+        }
+    }
+
+    // sends vars and mults to neighbors in other groups
+    public void sendII(Node node){
+        MessagePool pool = outboxes.get(node.name);
+        for(String neighbor: node.neighbors){
+            if(!local.containsKey(neighbor)){
+                Message message = pool.get(neighbor);
+                message.variables = node.variables.get(neighbor);
+                message.multipliers = node.multipliers.get(neighbor);
+                message.scalingParameter = node.getScalingParameter(neighbor);
+                if(node.metrics != null){
+                    node.metrics.addBytes(message.variables, message.multipliers);
+                }
+                put(neighbor, message);
+            }
+        }
+    }
+
+    // adds residuals of nodes II, the group completing the round wakes the controller
+    public void sendResiduals(){
+        boolean last = false;
+        for(Node node: nodesII){
+            last |= accumulator.add(node.residuals);
+        }
+        if(last){
+            Message message = outbox.get("ADMM");
+            message.iteration = iteration;
+            put("ADMM", message);
+        }
+    }
+
+    // receives stopping from controller
+    public void receiveStopping(){
+        Message message = take(name);
+        stopping = message.stopping;
+    }
+
+    public Message take(String mailbox){
+        try {
+            return queues.get(mailbox).take();
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public void put(String mailbox, Message message){
+        try {
+            queues.get(mailbox).put(message);
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+}
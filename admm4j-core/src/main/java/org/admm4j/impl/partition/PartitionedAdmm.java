@@ -0,0 +1,121 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.partition;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+import org.admm4j.impl.base.Mailbox;
+import org.admm4j.impl.base.Message;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements ADMM with many nodes per agent thread
+ * The graph is partitioned into numThreads groups of balanced size with few cut edges,
+ * each group is run by one agent, edges inside a group are plain array reads
+ * and only cut edges exchange messages
+ *
+ * The iterates are identical to those of the base engine
+ *
+ * @author Roman Denysiuk
+ */
+public class PartitionedAdmm extends Admm {
+
+    public GraphPartitioner partitioner = new GraphPartitioner();
+    public List<GroupAgent> groups;
+    public int numEdges;
+    public int numCutEdges;
+
+    @Override
+    public void build(){
+
+        tasks = new LinkedList();
+        queues = new HashMap();
+        accumulator.reset(nodesII.size());
+
+        List<Node> nodes = new ArrayList(nodesI.values());
+        nodes.addAll(nodesII.values());
+
+        int n = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+        n = Math.max(1, Math.min(n, nodes.size()));
+        int[] partition = partitioner.partition(nodes, n);
+
+        groups = new ArrayList();
+        List<String> names = new ArrayList();
+        for(int k = 0; k < n; k++){
+            GroupAgent group = new GroupAgent("group-" + k, queues);
+            group.accumulator = accumulator;
+            group.admm = this;
+            groups.add(group);
+            names.add(group.name);
+            tasks.add(group);
+        }
+        for(int i = 0; i < nodes.size(); i++){
+            groups.get(partition[i]).add(nodes.get(i));
+        }
+
+        // mailboxes receive only over cut edges
+        numEdges = 0;
+        numCutEdges = 0;
+        for(int i = 0; i < nodes.size(); i++){
+            Node node = nodes.get(i);
+            GroupAgent group = groups.get(partition[i]);
+            List<String> senders = new ArrayList();
+            for(String neighbor: node.neighbors){
+                if(!group.local.containsKey(neighbor)){
+                    senders.add(neighbor);
+                }
+            }
+            if(!senders.isEmpty()){
+                queues.put(node.name, makeMailbox(senders));
+            }
+            if(node.type == 1){
+                numEdges += node.neighbors.size();
+                numCutEdges += senders.size();
+            }
+        }
+
+        // ADMM controller and its messages to groups
+        List<String> senders = new ArrayList(names);
+        senders.add(ABORT);
+        queues.put("ADMM", makeMailbox(senders));
+        for(GroupAgent group: groups){
+            queues.put(group.name, makeMailbox(Arrays.asList("ADMM")));
+        }
+    }
+
+    @Override
+    public void sendStopping(){
+        for(GroupAgent group: groups){
+
+            Message message = outbox.get(group.name);
+            message.stopping = stopping;
+
+            Mailbox queue = queues.get(group.name);
+
+            try {
+                queue.put(message);
+            } catch (InterruptedException ex) {
+                System.err.println(ex);
+            }
+        }
+    }
+
+    @Override
+    public JsonObject getStats(){
+        JsonObject stats = super.getStats();
+        stats.addProperty("groups", groups.size());
+        stats.addProperty("edges", numEdges);
+        stats.addProperty("cutEdges", numCutEdges);
+        return stats;
+    }
+}
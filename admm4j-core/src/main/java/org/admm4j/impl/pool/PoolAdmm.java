@@ -0,0 +1,177 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.pool;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.Admm;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implements ADMM algorithm executed by a bounded pool of threads
+ * Agents do not block waiting for messages, an agent is submitted
+ * to the pool when all messages it waits for have been delivered
+ * The controller step is submitted in the same way when residuals 
+ * of all agents II have been reported, in between checks of stopping 
+ * agents II submit their senders directly
+ * 
+ * @author Roman Denysiuk
+ */
+public class PoolAdmm extends Admm {
+    
+    ExecutorService executor;
+    CountDownLatch termination; // counts down when agents I receive stopping
+    
+    public Map<String, Trigger> triggers;
+    public List<PoolAgentII> agentsII;
+    
+    @Override
+    public void execute(){
+        
+        // set params
+        stopping = false;
+        convergence = false;
+        iterCounter = 0;        
+        runTime = 0;
+        startTime = System.currentTimeMillis();
+        
+        // make agents and their queues
+        build();
+        
+        // submit agents II, the rest is driven by messages
+        start();
+        
+        try{
+            // wait for agents to finish
+            await();
+        }
+        finally{
+            shutdown();
+        }
+    }
+    
+    @Override
+    public void build(){
+        
+        int n = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(n, (r) -> {
+            Thread thread = new Thread(r, "admm4j-pool-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        termination = new CountDownLatch(nodesI.size());
+        
+        tasks = new LinkedList();
+        queues = new HashMap();
+        triggers = new HashMap();
+        agentsII = new LinkedList();
+        accumulator.reset(nodesII.size());
+        setProximalMessages();
+        
+        for(Node node: nodesI.values()){
+            queues.put(node.name, makeMailbox(node.neighbors));
+            PoolAgentI agent = new PoolAgentI(node, queues, this);
+            triggers.put(node.name, new Trigger(agent, executor, node.neighbors.size()));
+            tasks.add(agent);
+        }
+        
+        for(Node node: nodesII.values()){
+            queues.put(node.name, makeMailbox(getSendersII(node)));
+            PoolAgentII agent = new PoolAgentII(node, queues, this);
+            agent.accumulator = accumulator;
+            triggers.put(node.name, new Trigger(agent, executor, node.neighbors.size()));
+            tasks.add(agent);
+            agentsII.add(agent);
+        }
+        
+        // ADMM controller
+        queues.put("ADMM", makeMailbox(new ArrayList(nodesII.keySet())));
+        triggers.put("ADMM", new Trigger(this::control, executor, nodesII.size()));
+    }
+    
+    @Override
+    public void start(){
+        agentsII.forEach((agent) -> executor.execute(agent.sender));
+    }
+    
+    @Override
+    public void await(){
+        try {
+            termination.await();
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+    }
+    
+    @Override
+    public void shutdown(){
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            System.err.println(ex);
+        }
+    }
+    
+    // controller step, submitted when residuals of all agents II are in the mailbox
+    public void control(){
+        try{
+            // receive local convergences
+            receiveResiduals();
+            
+            // update interation and time counters, check stopping criteria
+            updateStopping();
+            
+            // record residuals of agents II
+            updateTrace();
+            
+            // mix states of agents II
+            updateAnderson();
+            
+            // save states of all nodes
+            updateCheckpoint();
+            
+            // print current statistics, agents II are idle at this point
+            if(verbose > 0 && iterCounter % verbose == 0){
+                printStats();
+            }
+            
+            // pass stopping to agents II and let them proceed
+            for(PoolAgentII agent: agentsII){
+                agent.stopping = stopping;
+                executor.execute(agent.sender);
+            }
+        }
+        catch(RuntimeException ex){
+            abort(ex);
+        }
+    }
+    
+    // called by agent I when it receives stopping
+    public void finish(){
+        termination.countDown();
+    }
+    
+    // called by an agent which has failed, releases waiting for termination
+    @Override
+    public void abort(RuntimeException ex){
+        System.err.println(ex);
+        stopping = true;
+        while(termination.getCount() > 0){
+            termination.countDown();
+        }
+    }
+}
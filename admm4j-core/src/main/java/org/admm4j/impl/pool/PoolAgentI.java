@@ -0,0 +1,63 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.pool;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.AgentI;
+import org.admm4j.impl.base.Mailbox;
+
+import java.util.Map;
+
+/**
+ * Implements a computing agent of type I executed by a pool of threads
+ * Each run performs a single step, it is submitted when 
+ * messages from all neighbors are in the mailbox, so taking them never blocks
+ * 
+ * @author Roman Denysiuk
+ */
+public class PoolAgentI extends AgentI {
+    
+    PoolAdmm admm;
+    
+    public PoolAgentI(Node node, Map<String, Mailbox> queues, PoolAdmm admm){
+        super(node, queues);
+        this.admm = admm;
+    }
+    
+    @Override
+    public void run() {
+        try{
+            // recieve vars and mults
+            receiveVariables();
+
+            // check convergence from controller
+            if(stopping){
+                admm.finish();
+                return;
+            }
+
+            // keep sent vars intact if double buffered
+            node.swapVariables();
+            
+            // eval proximal operator
+            node.timedSolve();
+
+            // send vars
+            sendVariables();
+        }
+        catch(RuntimeException ex){
+            admm.abort(ex);
+        }
+    }
+    
+    @Override
+    public void sendVariables(){
+        super.sendVariables();
+        for(String neighbor: node.neighbors){
+            admm.triggers.get(neighbor).signal();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.pool;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.base.AgentII;
+import org.admm4j.impl.base.Mailbox;
+
+import java.util.Map;
+
+/**
+ * Implements a computing agent of type II executed by a pool of threads
+ * Each run performs a single step, it is submitted when 
+ * messages from all neighbors are in the mailbox, so taking them never blocks
+ * Stopping is set directly by the controller which then submits the sender
+ * 
+ * @author Roman Denysiuk
+ */
+public class PoolAgentII extends AgentII {
+    
+    PoolAdmm admm;
+    
+    // sends vars, mults, and stopping to neighboring agentI
+    Runnable sender = () -> {
+        try{
+            sendVariables();
+        }
+        catch(RuntimeException ex){
+            admm.abort(ex);
+        }
+    };
+    
+    public PoolAgentII(Node node, Map<String, Mailbox> queues, PoolAdmm admm){
+        super(node, queues);
+        this.admm = admm;
+    }
+    
+    @Override
+    public void run() {
+        try{
+            // recieve vars and mults
+            receiveVariables();
+
+            // update vars, mults, and residuals
+            update();
+            iteration++;
+
+            // send local convergence if stopping is checked, otherwise proceed
+            if(accumulator.isCheckIteration(iteration)){
+                sendResiduals();
+            }
+            else{
+                sendVariables();
+            }
+        }
+        catch(RuntimeException ex){
+            admm.abort(ex);
+        }
+    }
+    
+    @Override
+    public void sendVariables(){
+        super.sendVariables();
+        for(String neighbor: node.neighbors){
+            admm.triggers.get(neighbor).signal();
+        }
+    }
+    
+    @Override
+    public void sendResiduals(){
+        super.sendResiduals();
+        admm.triggers.get("ADMM").signal();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.pool;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts messages delivered to an agent and submits the agent 
+ * for execution when all messages of the current step have arrived
+ * 
+ * @author Roman Denysiuk
+ */
+public class Trigger {
+    
+    Runnable task;
+    Executor executor;
+    int count; // number of messages expected in each step
+    AtomicInteger pending;
+    
+    public Trigger(Runnable task, Executor executor, int count){
+        this.task = task;
+        this.executor = executor;
+        this.count = count;
+        this.pending = new AtomicInteger(count);
+    }
+    
+    // called after a message has been put into the mailbox of the agent
+    public void signal(){
+        if(pending.decrementAndGet() == 0){
+            // agents act in turns, so no message of the next step can arrive before the task is run
+            pending.set(count);
+            executor.execute(task);
+        }
+    }
+}
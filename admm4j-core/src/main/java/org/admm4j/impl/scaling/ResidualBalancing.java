@@ -0,0 +1,51 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.scaling;
+
+import org.admm4j.core.Node;
+import org.admm4j.core.ScalingAdapter;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements residual balancing of the scaling parameters
+ * rho is increased if the primal residual of the node is ratio times larger
+ * than the dual one, and decreased in the opposite case,
+ * which keeps both residuals within a factor of each other
+ *
+ * Residuals are those computed by updateResiduals of the node
+ *
+ * @author Roman Denysiuk
+ */
+public class ResidualBalancing extends ScalingAdapter {
+
+    public double ratio = 10; // allowed ratio of primal and dual residuals
+    public double factor = 2; // factor of rho when residuals are out of balance
+
+    @Override
+    public void initialize(JsonObject settings){
+        super.initialize(settings);
+        if(settings.has("scalingRatio")){
+            ratio = settings.get("scalingRatio").getAsDouble();
+        }
+        if(settings.has("scalingFactor")){
+            factor = settings.get("scalingFactor").getAsDouble();
+        }
+    }
+
+    @Override
+    public double adapt(Node node) {
+        double primal = node.residuals[0];
+        double dual = node.residuals[1];
+        if(primal > ratio*dual){
+            return factor;
+        }
+        if(dual > ratio*primal){
+            return 1/factor;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.scaling;
+
+import org.admm4j.core.Node;
+
+import java.util.Map;
+import java.util.HashMap;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements spectral (Barzilai-Borwein) adaptation of the scaling parameters
+ * Curvatures of the functions of nodes I and II are estimated from the changes
+ * of variables and dual variables since the last adaptation:
+ *  node I:  -l^ is a subgradient at x, where l^ = rho*u + rho*(z - zold) is the intermediate dual
+ *  node II:  l  is a subgradient at z, where l  = rho*u
+ * Each curvature is the hybrid of steepest descent and minimum gradient steps,
+ * it is used only if changes of variables and subgradients are correlated enough
+ * The new rho is the geometric mean of both curvatures, or the one which is reliable
+ * Curvatures of nonsmooth functions, such as indicators of LP constraints, can be far off,
+ * so residual balancing is used when no curvature is reliable or when residuals
+ * are out of balance and the estimate does not move rho to balance them
+ *
+ * All edges of the node II are taken together
+ *
+ * @author Roman Denysiuk
+ */
+public class SpectralScaling extends ResidualBalancing {
+
+    public double correlation = 0.2; // min correlation of changes for a curvature to be used
+
+    // values at the last adaptation in each neighbor
+    Map<String, double[]> lastX = new HashMap();
+    Map<String, double[]> lastZ = new HashMap();
+    Map<String, double[]> lastDual = new HashMap();
+    Map<String, double[]> lastIntermediate = new HashMap();
+
+    @Override
+    public void initialize(JsonObject settings){
+        super.initialize(settings);
+        if(settings.has("scalingCorrelation")){
+            correlation = settings.get("scalingCorrelation").getAsDouble();
+        }
+    }
+
+    @Override
+    public double adapt(Node node) {
+
+        boolean first = lastX.isEmpty();
+        double xx = 0, xf = 0, ff = 0; // changes of x and of subgradient of node I
+        double zz = 0, zg = 0, gg = 0; // changes of z and of subgradient of node II
+        double rhos = 0;
+
+        for(String neighbor: node.neighbors){
+            int n = node.numVariables.get(neighbor);
+            double rho = node.scalingParameters.get(neighbor);
+            double[] x = node.neighborVariables.get(neighbor);
+            double[] z = node.variables.get(neighbor);
+            double[] zold = node.previousVariables.get(neighbor);
+            double[] u = node.multipliers.get(neighbor);
+            rhos += rho;
+
+            if(first){
+                lastX.put(neighbor, new double[n]);
+                lastZ.put(neighbor, new double[n]);
+                lastDual.put(neighbor, new double[n]);
+                lastIntermediate.put(neighbor, new double[n]);
+            }
+            double[] x0 = lastX.get(neighbor);
+            double[] z0 = lastZ.get(neighbor);
+            double[] l0 = lastDual.get(neighbor);
+            double[] h0 = lastIntermediate.get(neighbor);
+
+            for(int i = 0; i < n; i++){
+                double l = rho*u[i];
+                double h = l + rho*(z[i] - zold[i]);
+
+                double dx = x[i] - x0[i];
+                double df = h0[i] - h;
+                double dz = z[i] - z0[i];
+                double dg = l - l0[i];
+                xx += dx*dx;
+                xf += dx*df;
+                ff += df*df;
+                zz += dz*dz;
+                zg += dz*dg;
+                gg += dg*dg;
+
+                x0[i] = x[i];
+                z0[i] = z[i];
+                l0[i] = l;
+                h0[i] = h;
+            }
+        }
+
+        if(first){
+            return 1;
+        }
+
+        double alpha = getCurvature(xx, xf, ff);
+        double beta = getCurvature(zz, zg, gg);
+
+        double rho;
+        if(!Double.isNaN(alpha) && !Double.isNaN(beta)){
+            rho = Math.sqrt(alpha*beta);
+        }
+        else if(!Double.isNaN(alpha)){
+            rho = alpha;
+        }
+        else if(!Double.isNaN(beta)){
+            rho = beta;
+        }
+        else{
+            return super.adapt(node);
+        }
+
+        // safeguard: residuals out of balance are balanced if the estimate does not do so
+        double factor = rho / (rhos / node.neighbors.size());
+        double balance = super.adapt(node);
+        if(balance != 1 && (factor - 1)*(balance - 1) <= 0){
+            return balance;
+        }
+        return factor;
+    }
+
+    /**
+     * hybrid spectral step from inner products of changes of variables (d) and subgradients (s)
+     * steepest descent: <s,s>/<d,s>, minimum gradient: <d,s>/<d,d>
+     * returns NaN if the changes are not correlated enough
+     */
+    public double getCurvature(double dd, double ds, double ss){
+        if(!(ds > correlation * Math.sqrt(dd*ss))){
+            return Double.NaN;
+        }
+        double steepest = ss/ds;
+        double minimum = ds/dd;
+        return (2*minimum > steepest) ? minimum : steepest - minimum/2;
+    }
+}
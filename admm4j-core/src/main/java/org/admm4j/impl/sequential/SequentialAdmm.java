@@ -0,0 +1,145 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.impl.sequential;
+
+import org.admm4j.core.Node;
+import org.admm4j.impl.bsp.BspAdmm;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements ADMM algorithm executed by the calling thread
+ * Nodes are solved directly in a fixed order, no messages and no threads
+ * It is the fastest choice for small problems and a deterministic baseline
+ * 
+ * Jacobi iteration (default) gives the same iterates as other engines:
+ * all nodes I are solved, then all nodes II are updated
+ * 
+ * Gauss-Seidel iteration: after each node I is solved, 
+ * its neighbors II are solved again, so the nodes I that follow 
+ * already see the updated variables within the same iteration
+ * Multipliers and residuals of a node II are updated once per iteration, 
+ * after the last of its neighbors has been solved
+ * 
+ * @author Roman Denysiuk
+ */
+public class SequentialAdmm extends BspAdmm {
+    
+    public boolean gaussSeidel = false;
+    
+    List<Node> orderI;
+    List<Node> orderII;
+    Map<String, Integer> lastNeighbor; // position of the last neighbor of node II in orderI
+    
+    @Override
+    public void initialize(JsonObject settings){
+        super.initialize(settings);
+        if(settings.has("gaussSeidel")){
+            gaussSeidel = settings.get("gaussSeidel").getAsBoolean();
+        }
+    }
+    
+    @Override
+    public void execute(){
+        
+        // set params
+        stopping = false;
+        convergence = false;
+        iterCounter = 0;        
+        runTime = 0;
+        startTime = System.currentTimeMillis();
+        
+        // fix order of nodes
+        build();
+        int iteration = 0;
+        
+        while(true){
+            
+            // nodes I
+            for(Node node: orderI){
+                receiveI(node);
+            }
+            if(stopping){
+                break;
+            }
+            
+            if(gaussSeidel){
+                sweep();
+            }
+            else{
+                for(Node node: orderI){
+                    node.swapVariables();
+                    node.timedSolve();
+                }
+                for(Node node: orderII){
+                    receiveII(node);
+                    updateII(node);
+                }
+            }
+            
+            // residuals and stopping
+            if(accumulator.isCheckIteration(++iteration)){
+                control();
+            }
+        }
+    }
+    
+    @Override
+    public void build(){
+        orderI = new ArrayList(nodesI.values());
+        orderII = new ArrayList(nodesII.values());
+        
+        lastNeighbor = new HashMap();
+        for(int k = 0; k < orderI.size(); k++){
+            for(String neighbor: orderI.get(k).neighbors){
+                lastNeighbor.put(neighbor, k);
+            }
+        }
+    }
+    
+    // Gauss-Seidel sweep over nodes I
+    public void sweep(){
+        
+        for(Node node: orderII){
+            node.updatePreviousVariables();
+            
+            // nodes I read vars of node II before it is solved again
+            if(node.doubleBuffered){
+                for(String neighbor: node.neighbors){
+                    System.arraycopy(node.previousVariables.get(neighbor), 0, node.variables.get(neighbor), 0, node.numVariables.get(neighbor));
+                }
+            }
+        }
+        
+        for(int k = 0; k < orderI.size(); k++){
+            
+            // take the latest vars and mults of neighbors
+            Node node = orderI.get(k);
+            receiveI(node);
+            node.swapVariables();
+            node.timedSolve();
+            
+            for(String neighbor: node.neighbors){
+                Node nodeII = nodesII.get(neighbor);
+                receiveII(nodeII);
+                nodeII.solve();
+                
+                // the last neighbor of node II has been solved
+                if(lastNeighbor.get(neighbor) == k){
+                    nodeII.updateMultipliers();
+                    nodeII.updateResiduals();
+                    nodeII.updateScalingParameters();
+                    nodeII.accelerate();
+                }
+            }
+        }
+    }
+}
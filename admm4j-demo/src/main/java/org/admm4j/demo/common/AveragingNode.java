@@ -14,6 +14,10 @@ import org.admm4j.core.Node;
  */
 public class AveragingNode extends Node{
     
+    public AveragingNode(){
+        doubleBuffered = true; // solve overwrites all variables
+    }
+    
     @Override
     public void solve() {
         
@@ -23,7 +27,7 @@ public class AveragingNode extends Node{
             // compute average
             double average = 0;            
             for(String neighbor: neighbors){
-                average += neighborVariables.get(neighbor)[i];
+                average += getNeighborVariable(neighbor, i);
             }            
             average /= neighbors.size();
             
@@ -20,6 +20,11 @@ import com.google.gson.JsonObject;
 public class L1NormNode extends Node{
     
     double[] lambda;
+    double[] y; // proximal point buffer
+    
+    public L1NormNode(){
+        doubleBuffered = true; // solve overwrites all variables
+    }
     
     @Override
     public void build(JsonObject input) {
@@ -38,10 +43,13 @@ public class L1NormNode extends Node{
         int n = numVariables.get(neighbor);
         
         // single neighbor, Proximal Point
-        double[] y = getProximalPoint(neighbor);
+        if(y == null){
+            y = new double[n];
+        }
+        getProximalPoint(neighbor, y);
         
-        // init vars
-        double[] x = new double[n];
+        // vars are updated in place
+        double[] x = variables.get(neighbor);
         
         for(int i = 0; i < n; i++){
             
@@ -62,8 +70,6 @@ public class L1NormNode extends Node{
                 x[i] = x_negative;
             }
         }
-        
-        variables.put(neighbor, x);
     }
     
     @Override
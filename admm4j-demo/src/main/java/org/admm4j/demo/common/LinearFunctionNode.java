@@ -26,6 +26,10 @@ public class LinearFunctionNode extends Node {
     public double[] lb;
     public double[] ub;
 
+    public LinearFunctionNode(){
+        doubleBuffered = true; // solve overwrites all variables
+    }
+    
     @Override
     public void build(JsonObject input) {
         int nvar = numVariables.values().iterator().next();
@@ -73,34 +77,29 @@ public class LinearFunctionNode extends Node {
         }
         
         int nvar = numVariables.get(neighbors.iterator().next());
-        double[] x = new double[nvar];
         
         for(int i = 0; i < nvar; i++){ 
-            x[i] = 0;
+            double x = 0;
             
             for(String neighbor: neighbors){
-                if(type == 1){
-                    x[i] += scalingParameters.get(neighbor) * (neighborVariables.get(neighbor)[i] - multipliers.get(neighbor)[i]);
-                }
-                else{
-                    x[i] += scalingParameters.get(neighbor) * (neighborVariables.get(neighbor)[i] + multipliers.get(neighbor)[i]);
-                }
+                x += scalingParameters.get(neighbor) * getProximalPoint(neighbor, i);
             }            
             
-            x[i] -= c[i];
+            x -= c[i];
             
-            x[i] /= rhos;
+            x /= rhos;
             
             if(lb != null){
-                x[i] = Math.max(lb[i], x[i]);
+                x = Math.max(lb[i], x);
             }
             if(ub != null){
-                x[i] = Math.min(x[i], ub[i]);
+                x = Math.min(x, ub[i]);
             }            
-        }      
-
-        for(String neighbor: neighbors){
-            variables.put(neighbor, x);
+            
+            // vars are updated in place
+            for(String neighbor: neighbors){
+                variables.get(neighbor)[i] = x;
+            }
         }
     }    
     
@@ -9,6 +9,7 @@ import org.admm4j.core.Node;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 
 import com.google.gson.JsonObject;
@@ -27,6 +28,8 @@ import com.google.gson.JsonArray;
  * Ball: sum x^2 = 1
  * 
  * LpBox
+ * 
+ * Projections are done in place, buffers are kept between iterations
  *
  * @author Roman Denysiuk
  */
@@ -34,6 +37,16 @@ public class ProjectionNode extends Node{
     
     List<Constraint> constraints;
     
+    // buffers of Dykstra's algorithm
+    double[] y;
+    double[] xI;
+    double[] xold;
+    double[][] I;
+    
+    public ProjectionNode(){
+        doubleBuffered = true; // solve overwrites all variables
+    }
+    
     @Override
     public void build(JsonObject input) {
         
@@ -110,22 +123,24 @@ public class ProjectionNode extends Node{
     public void solve() {
         
         String neighbor = neighbors.get(0);
+        int n = numVariables.get(neighbor);
         
-        // init
-        double[] y = getProximalPoint(neighbor); // starting point
-        double[] x; // projected solution
+        // projected solution is written into variables
+        double[] x = variables.get(neighbor);
         
         if(constraints.size() == 1){
-            // single constraint
-            x = constraints.get(0).projection(y);
+            // single constraint, project proximal point
+            getProximalPoint(neighbor, x);
+            constraints.get(0).projection(x);
         }
         else{
-            // set of constraint
-            x = doDykstraProjections(y, constraints);
+            // set of constraint, proximal point is starting point
+            if(y == null){
+                y = new double[n];
+            }
+            getProximalPoint(neighbor, y);
+            doDykstraProjections(y, x, constraints);
         }
-        
-        // put values into variables
-        variables.put(neighbor, x);
     }
     
     @Override
@@ -148,23 +163,43 @@ public class ProjectionNode extends Node{
      * Implements Dykstra's alternating projection algorithm
      */
     public double[] doDykstraProjections(double[] y, List<Constraint> constraints){
+        return doDykstraProjections(y, new double[y.length], constraints);
+    }
+    
+    // writes the projection of y into x
+    public double[] doDykstraProjections(double[] y, double[] x, List<Constraint> constraints){
         
         double tol = 1e-5;
         
         int n = y.length;
-        double[] x = y.clone();
-        double[] xI;
-        double[] xold;
+        int m = constraints.size();
         
-        double[][] I = new double[constraints.size()][n];
+        if(I == null || I.length != m || I[0].length != n){
+            I = new double[m][n];
+            xI = new double[n];
+            xold = new double[n];
+        }
+        else{
+            for(double[] row: I){
+                Arrays.fill(row, 0);
+            }
+        }
+        
+        System.arraycopy(y, 0, x, 0, n);
         
         do {
-            xold = x.clone();
+            System.arraycopy(x, 0, xold, 0, n);
             
-            for(int i = 0; i < constraints.size(); i++){
-                xI = minus(x, I[i]);
-                x = constraints.get(i).projection(xI);
-                I[i] = minus(x, xI);
+            for(int i = 0; i < m; i++){
+                double[] Ii = I[i];
+                for(int j = 0; j < n; j++){
+                    xI[j] = x[j] - Ii[j];
+                }
+                System.arraycopy(xI, 0, x, 0, n);
+                constraints.get(i).projection(x);
+                for(int j = 0; j < n; j++){
+                    Ii[j] = x[j] - xI[j];
+                }
             }
             
         }while(distance(x, xold) > tol);
@@ -197,6 +232,7 @@ public class ProjectionNode extends Node{
         
         public abstract double violation(double[] x);
         
+        // projects x in place and returns it
         public abstract double[] projection(double[] x);
     }
     
@@ -224,14 +260,13 @@ public class ProjectionNode extends Node{
         }
         
         @Override
-        public double[] projection(double[] y) {
+        public double[] projection(double[] x) {
             
-            int n = y.length;
+            int n = x.length;
             
-            double[] x = new double[n];
             double normp_shift = 0;
             for(int i = 0; i < n; i++){
-                x[i] = y[i] - shift;
+                x[i] = x[i] - shift;
                 normp_shift += Math.pow(Math.abs(x[i]), p);
             }
             normp_shift = Math.pow(normp_shift, 1d/p);
@@ -342,12 +377,9 @@ public class ProjectionNode extends Node{
                 double d = (b - ax)/aa;
                 
                 // projection
-                double[] y = new double[n];
                 for(int i = 0; i < n; i++){
-                    y[i] = x[i] + d*a[i];
+                    x[i] = x[i] + d*a[i];
                 }
-                
-                return y;
             }            
             return x;
         }
@@ -389,11 +421,10 @@ public class ProjectionNode extends Node{
             double d = (b - ax)/aa;
             
             // projection
-            double[] y = new double[n];
             for(int i = 0; i < n; i++){
-                y[i] = x[i] + d*a[i];
+                x[i] = x[i] + d*a[i];
             }            
-            return y;
+            return x;
         }
     }
     
@@ -435,12 +466,9 @@ public class ProjectionNode extends Node{
                 double d = (b - ax)/aa;
                 
                 // projection
-                double[] y = x.clone();
                 for(int i = 0; i < idx.length; i++){
-                    y[idx[i]] += d*a[i];
+                    x[idx[i]] += d*a[i];
                 }
-                
-                return y;
             }            
             return x;
         }
@@ -482,11 +510,10 @@ public class ProjectionNode extends Node{
             double d = (b - ax)/aa;
             
             // projection
-            double[] y = x.clone();
             for(int i = 0; i < idx.length; i++){
-                y[idx[i]] += d*a[i];
+                x[idx[i]] += d*a[i];
             }
-            return y;
+            return x;
         }
     }
     
@@ -507,23 +534,23 @@ public class ProjectionNode extends Node{
         }
         
         @Override
-        public double[] projection(double[] y) {
-            int n = y.length;
+        public double[] projection(double[] x) {
+            int n = x.length;
             
-            double[] x = new double[n];
             double norm = 0;
             for(int i = 0; i < n; i++){
-                norm += y[i]*y[i];
+                norm += x[i]*x[i];
             }
             norm = Math.sqrt(norm);
             
             if(norm < Double.MIN_VALUE){
+                Arrays.fill(x, 0);
                 x[0] = 1d;
                 return x;
             }
             
             for(int i = 0; i < n; i++){
-                x[i] = y[i]/norm;
+                x[i] = x[i]/norm;
             }
             return x;
         }
@@ -0,0 +1,109 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.demo.launcher;
+
+import org.admm4j.impl.base.Admm;
+import org.admm4j.impl.base.AdmmContext;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+import com.google.gson.JsonObject;
+
+/**
+ * Reports the number of bytes allocated per ADMM iteration
+ * Allocations of all threads are sampled after a warm-up period
+ * and again after the measured period, the run does not stop on convergence
+ *
+ * Accepts the same parameters as Main plus:
+ *    -warmup <iterations before the first sample | default: 1000>
+ *    -measure <iterations between the samples | default: 10000>
+ *
+ * @author Roman Denysiuk
+ */
+public class AllocationProfiler {
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int warmup = 1000;
+        int measure = 10000;
+        for(int i = 0; i < args.length - 1; i++){
+            if(args[i].equalsIgnoreCase("-warmup")){
+                warmup = Integer.parseInt(args[i+1]);
+            }
+            else if(args[i].equalsIgnoreCase("-measure")){
+                measure = Integer.parseInt(args[i+1]);
+            }
+        }
+
+        // iterate past the measured period without converging
+        AdmmContext context = new AdmmContext();
+        context.settings.addProperty("tolPrimal", 0);
+        context.settings.addProperty("tolDual", 0);
+        context.settings.addProperty("iterLimit", warmup + 2*measure);
+
+        JsonObject input = Main.parseArguments(context, args);
+        if(input == null){
+            System.out.println("No input file ...");
+            return;
+        }
+
+        ThreadMXBean mxBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if(!mxBean.isThreadAllocatedMemorySupported()){
+            System.out.println("Thread allocated memory is not supported by JVM ...");
+            return;
+        }
+        mxBean.setThreadAllocatedMemoryEnabled(true);
+
+        // run ADMM in background
+        Admm initial = context.solver;
+        Thread runner = new Thread(() -> context.execute(input));
+        runner.start();
+
+        long[] first = sample(context, initial, warmup, runner, mxBean);
+        long[] second = sample(context, initial, warmup + measure, runner, mxBean);
+        runner.join();
+
+        if(first == null || second == null || second[0] <= first[0]){
+            System.out.println("ADMM finished before the measured period ...");
+            return;
+        }
+
+        long iterations = second[0] - first[0];
+        long bytes = second[1] - first[1];
+        System.out.printf("Iterations: %d   Bytes allocated: %d   Bytes per iteration: %.1f\n", iterations, bytes, (double) bytes / iterations);
+    }
+
+    // waits for the given iteration, returns the iteration and bytes allocated by other threads
+    public static long[] sample(AdmmContext context, Admm initial, int iteration, Thread runner, ThreadMXBean mxBean) throws InterruptedException {
+
+        while(runner.isAlive()){
+            Admm solver = context.solver;
+            if(solver != initial && solver.iterCounter >= iteration){
+                long iter = solver.iterCounter;
+                return new long[]{iter, getAllocatedBytes(mxBean)};
+            }
+            Thread.sleep(1);
+        }
+        return null;
+    }
+
+    // sums bytes allocated by all live threads except the current one
+    public static long getAllocatedBytes(ThreadMXBean mxBean){
+
+        long self = Thread.currentThread().getId();
+        long[] ids = mxBean.getAllThreadIds();
+        long[] bytes = mxBean.getThreadAllocatedBytes(ids);
+
+        long total = 0;
+        for(int i = 0; i < ids.length; i++){
+            if(ids[i] != self && bytes[i] > 0){
+                total += bytes[i];
+            }
+        }
+        return total;
+    }
+}
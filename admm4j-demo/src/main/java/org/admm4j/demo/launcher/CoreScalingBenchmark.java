@@ -0,0 +1,158 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.demo.launcher;
+
+import org.admm4j.impl.base.AdmmContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.google.gson.JsonObject;
+
+/**
+ * Reports how an input solved in one process scales with the number of cores
+ * For each number of cores the input is solved by a fresh JVM started with the classpath of this one,
+ * restricted to that many cores by taskset where available and by -XX:ActiveProcessorCount,
+ * and given as many threads for engines with a pool of threads
+ * The JVM solves the input through AdmmContext and reports, besides the statistics of the run,
+ * whether it converged and the peak heap, the largest total heap usage before a garbage collection or at the end
+ * Time to tolerance is the run time of a converged run
+ *
+ * Accepts the same parameters as Main plus:
+ *    -cores <numbers of cores, comma separated | default: 1,2,4,... up to available processors>
+ *
+ * @author Roman Denysiuk
+ */
+public class CoreScalingBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if(args.length > 1 && args[0].equalsIgnoreCase("-child")){
+            child(args[1], Arrays.copyOfRange(args, 2, args.length));
+            return;
+        }
+
+        String[] cores = null;
+        List<String> common = new ArrayList();
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equalsIgnoreCase("-cores")){
+                cores = args[++i].split(",");
+            }
+            else if(args[i].equalsIgnoreCase("-output") || args[i].equalsIgnoreCase("-threads")){
+                i++; // set for each run
+            }
+            else{
+                common.add(args[i]);
+            }
+        }
+        if(cores == null){
+            List<String> powers = new ArrayList();
+            int available = Runtime.getRuntime().availableProcessors();
+            for(int n = 1; n < available; n *= 2){
+                powers.add(String.valueOf(n));
+            }
+            powers.add(String.valueOf(available));
+            cores = powers.toArray(new String[0]);
+        }
+
+        ScalingReport report = new ScalingReport("Cores", "   Time to tol   Peak heap (MB)");
+        for(String token: cores){
+            int n = Integer.parseInt(token.trim());
+            JsonObject stats = run(n, common, report);
+            String columns = "";
+            if(stats != null){
+                String tolerance = stats.get("converged").getAsBoolean() ? stats.get("runTime").getAsString() : "-";
+                columns = String.format("   %11s   %14.1f", tolerance, stats.get("peakHeap").getAsLong() / 1048576.);
+            }
+            report.print(n, stats, columns);
+        }
+    }
+
+    // solves the input in a JVM restricted to n cores, returns its statistics
+    public static JsonObject run(int n, List<String> common, ScalingReport report) throws IOException, InterruptedException {
+
+        File result = new File(report.dir, "stats_" + n + ".json");
+        List<String> prefix = new ArrayList();
+        if(new File("/usr/bin/taskset").canExecute()){
+            prefix.add("/usr/bin/taskset");
+            prefix.add("-c");
+            prefix.add(n > 1 ? "0-" + (n - 1) : "0");
+        }
+        List<String> args = new ArrayList();
+        args.add("-child");
+        args.add(result.getPath());
+        args.addAll(common);
+        args.add("-threads");
+        args.add(String.valueOf(n));
+
+        Process jvm = report.start(prefix, Arrays.asList("-XX:ActiveProcessorCount=" + n), CoreScalingBenchmark.class, args, "log_" + n + ".txt");
+        return report.read(jvm.waitFor() == 0, result);
+    }
+
+    // solves the input in this JVM and saves the statistics
+    public static void child(String result, String[] args){
+
+        AdmmContext context = new AdmmContext();
+        JsonObject input = Main.parseArguments(context, args);
+        AtomicLong peak = watchHeap();
+        context.execute(input);
+        peak.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+
+        JsonObject stats = context.solver.getStats();
+        stats.addProperty("converged", context.solver.convergence);
+        stats.addProperty("peakHeap", peak.get());
+        context.saveJsonToFile(stats, result);
+    }
+
+    /**
+     * keeps the largest heap usage seen before a garbage collection,
+     * usage only grows between collections, so with the usage at the end it is the peak of the run
+     */
+    public static AtomicLong watchHeap(){
+
+        Set<String> heap = new HashSet();
+        for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()){
+            if(pool.getType() == MemoryType.HEAP){
+                heap.add(pool.getName());
+            }
+        }
+
+        AtomicLong peak = new AtomicLong(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        NotificationListener listener = (notification, handback) -> {
+            if(!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)){
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long used = 0;
+            for(Map.Entry<String, MemoryUsage> entry: info.getGcInfo().getMemoryUsageBeforeGc().entrySet()){
+                if(heap.contains(entry.getKey())){
+                    used += entry.getValue().getUsed();
+                }
+            }
+            peak.accumulateAndGet(used, Math::max);
+        };
+        for(GarbageCollectorMXBean collector: ManagementFactory.getGarbageCollectorMXBeans()){
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+        return peak;
+    }
+}
@@ -7,6 +7,7 @@ package org.admm4j.demo.launcher;
 
 import org.admm4j.impl.base.AdmmContext;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 /**
@@ -31,20 +32,62 @@ public class Main {
         System.out.println("    -iter <max number of iterations | default: Integer.MAX_VALUE>");
         System.out.println("    -time <time limit | default: Long.MAX_VALUE>");
         System.out.println("    -verbose <display iterations summary | default: 0");
+        System.out.println("    -checkFrequency <iterations between checks of stopping criteria | default: 1>");
+        System.out.println("    -proximalMessages <node II sends (z - u) instead of z and u to node I (true/false) | default: false>");
+        System.out.println("    -relaxation <over-relaxation of node II, 1 is plain ADMM | default: 1, 1.5 to 1.8 is typical>");
+        System.out.println("    -checkpointFile <binary checkpoint of all nodes written during the run | default: none>");
+        System.out.println("    -checkpointFrequency <iterations between checkpoints | default: 1000>");
+        System.out.println("    -restoreFile <binary checkpoint the run starts from | default: none>");
+        System.out.println("    -traceFile <residuals and rho of nodes II at each check of stopping | default: none>");
+        System.out.println("    -traceFormat <format of the trace (csv/binary) | default: csv>");
+        System.out.println("    -metrics <per-node times of solve and communication, published over JMX and saved with stats (true/false) | default: false>");
+        System.out.println("    -andersonMemory <window of Anderson acceleration of the whole iteration, 0 is off | default: 0>");
+        System.out.println("    -acceleration <Nesterov momentum of nodes II with restart (true/false) | default: false>");
+        System.out.println("    -accelerationRestart <required decrease of the combined residual | default: 0.999>");
+        System.out.println("    -scalingAdapter <full class name of adaptation of rho | default: none, rho is fixed>");
+        System.out.println("            org.admm4j.impl.scaling.ResidualBalancing - keeps primal and dual residuals balanced");
+        System.out.println("            org.admm4j.impl.scaling.SpectralScaling - spectral (Barzilai-Borwein) estimate of rho");
+        System.out.println("    -scalingFrequency <iterations between adaptations of rho | default: 2>");
+        System.out.println("    -scalingLimit <iterations after which rho is fixed | default: 1000>");
+        System.out.println("    -scalingRatio <residual balancing: allowed ratio of primal and dual residuals | default: 10>");
+        System.out.println("    -scalingFactor <residual balancing: factor of rho | default: 2>");
+        System.out.println("    -scalingCorrelation <spectral: min correlation for a curvature estimate | default: 0.2>");
         System.out.println("    -output <name of output file | default: output.json>");
+        System.out.println("    -engine <full class name of execution engine | default: org.admm4j.impl.base.Admm>");
+        System.out.println("            org.admm4j.impl.base.Admm - thread per node");
+        System.out.println("            org.admm4j.impl.pool.PoolAdmm - bounded pool of threads");
+        System.out.println("            org.admm4j.impl.bsp.BspAdmm - bulk-synchronous phases over shared memory");
+        System.out.println("            org.admm4j.impl.bsp.ForkJoinAdmm - bulk-synchronous with cost-aware work-stealing");
+        System.out.println("            org.admm4j.impl.partition.PartitionedAdmm - partitioned graph, thread per group of nodes");
+        System.out.println("            org.admm4j.impl.async.AsyncAdmm - asynchronous with bounded staleness");
+        System.out.println("            org.admm4j.impl.sequential.SequentialAdmm - single thread, no messages");
+        System.out.println("            org.admm4j.impl.distributed.SocketAdmm - several processes over TCP sockets");
+        System.out.println("            org.admm4j.impl.distributed.SharedMemoryAdmm - several processes on one host, arrays in memory-mapped files");
+        System.out.println("    -threads <number of threads used by pooled engines | default: number of cores>");
+        System.out.println("    -asyncFraction <fraction of neighbors agent II waits for | default: 1.0>");
+        System.out.println("    -maxStaleness <max iterations variables of a neighbor can lag behind | default: 0>");
+        System.out.println("    -gaussSeidel <Gauss-Seidel sweeps in sequential engine (true/false) | default: false>");
+        System.out.println("    -hosts <host:port of each process, comma separated | used by distributed engine>");
+        System.out.println("    -rank <index of this process in hosts | default: 0>");
+        System.out.println("    -codec <full class name of array encoding between processes | default: org.admm4j.impl.distributed.RawCodec>");
+        System.out.println("            org.admm4j.impl.distributed.RawCodec - exact doubles");
+        System.out.println("            org.admm4j.impl.distributed.ThresholdCodec - only coordinates changed by more than codecThreshold");
+        System.out.println("            org.admm4j.impl.distributed.Float32Codec - single precision differences with error feedback");
+        System.out.println("            org.admm4j.impl.distributed.Float16Codec - half precision differences with error feedback");
+        System.out.println("    -codecThreshold <change of a coordinate sent by threshold codec | default: 1e-6>");
+        System.out.println("    -sharedDirectory <directory of memory-mapped files used by shared memory engine | default: temporary directory>");
+        System.out.println("    -mailbox <full class name of agent mailbox | default: org.admm4j.impl.base.QueueMailbox>");
+        System.out.println("            org.admm4j.impl.base.QueueMailbox - blocking queue");
+        System.out.println("            org.admm4j.impl.base.RingMailbox - lock-free ring buffer per sender");
         System.out.println();
         System.out.println("Examples:");
         System.out.println("java -jar admm4j.jar -input myinput.json -output myoutput.json -nvar 10 -rho 1");
+        System.out.println("java -jar admm4j.jar -input myinput.json -output myoutput0.json -engine org.admm4j.impl.distributed.SocketAdmm -hosts localhost:7000,localhost:7001 -rank 0");
     }
     
-    public static void main(String[] args){
-        
-        if(args.length < 1 || args[0].equalsIgnoreCase("-help")){
-            printUsage();
-            return;
-        }
+    // sets user settings in the context, returns the input if provided
+    public static JsonObject parseArguments(AdmmContext context, String[] args){
         
-        AdmmContext context = new AdmmContext();
         JsonObject input = null;
         
         // user settings
@@ -72,6 +115,97 @@ public class Main {
                 else if(args[i].equalsIgnoreCase("-verbose")){
                     context.settings.addProperty("verbose", Integer.parseInt(args[++i]));
                 }
+                else if(args[i].equalsIgnoreCase("-checkFrequency")){
+                    context.settings.addProperty("checkFrequency", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-proximalMessages")){
+                    context.settings.addProperty("proximalMessages", Boolean.parseBoolean(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-relaxation")){
+                    context.settings.addProperty("relaxation", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-checkpointFile")){
+                    context.settings.addProperty("checkpointFile", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-checkpointFrequency")){
+                    context.settings.addProperty("checkpointFrequency", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-restoreFile")){
+                    context.settings.addProperty("restoreFile", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-traceFile")){
+                    context.settings.addProperty("traceFile", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-traceFormat")){
+                    context.settings.addProperty("traceFormat", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-metrics")){
+                    context.settings.addProperty("metrics", Boolean.parseBoolean(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-andersonMemory")){
+                    context.settings.addProperty("andersonMemory", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-acceleration")){
+                    context.settings.addProperty("acceleration", Boolean.parseBoolean(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-accelerationRestart")){
+                    context.settings.addProperty("accelerationRestart", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-scalingAdapter")){
+                    context.settings.addProperty("scalingAdapter", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-scalingFrequency")){
+                    context.settings.addProperty("scalingFrequency", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-scalingLimit")){
+                    context.settings.addProperty("scalingLimit", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-scalingRatio")){
+                    context.settings.addProperty("scalingRatio", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-scalingFactor")){
+                    context.settings.addProperty("scalingFactor", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-scalingCorrelation")){
+                    context.settings.addProperty("scalingCorrelation", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-engine")){
+                    context.settings.addProperty("engine", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-threads")){
+                    context.settings.addProperty("numThreads", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-asyncFraction")){
+                    context.settings.addProperty("asyncFraction", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-maxStaleness")){
+                    context.settings.addProperty("maxStaleness", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-gaussSeidel")){
+                    context.settings.addProperty("gaussSeidel", Boolean.parseBoolean(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-hosts")){
+                    JsonArray hosts = new JsonArray();
+                    for(String host: args[++i].split(",")){
+                        hosts.add(host);
+                    }
+                    context.settings.add("hosts", hosts);
+                }
+                else if(args[i].equalsIgnoreCase("-rank")){
+                    context.settings.addProperty("rank", Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-codec")){
+                    context.settings.addProperty("codec", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-codecThreshold")){
+                    context.settings.addProperty("codecThreshold", Double.parseDouble(args[++i]));
+                }
+                else if(args[i].equalsIgnoreCase("-sharedDirectory")){
+                    context.settings.addProperty("sharedDirectory", args[++i]);
+                }
+                else if(args[i].equalsIgnoreCase("-mailbox")){
+                    context.settings.addProperty("mailbox", args[++i]);
+                }
                 else if(args[i].equalsIgnoreCase("-output")){
                     context.settings.addProperty("outputFile", args[++i]);
                 }
@@ -82,6 +216,19 @@ public class Main {
             ++i;
         }
         
+        return input;
+    }
+    
+    public static void main(String[] args){
+        
+        if(args.length < 1 || args[0].equalsIgnoreCase("-help")){
+            printUsage();
+            return;
+        }
+        
+        AdmmContext context = new AdmmContext();
+        JsonObject input = parseArguments(context, args);
+        
         // run ADMM
         if(input != null){
             context.execute(input);
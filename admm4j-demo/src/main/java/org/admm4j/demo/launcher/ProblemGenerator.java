@@ -0,0 +1,351 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.demo.launcher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Generates synthetic problems of arbitrary size in the input format of Main
+ * The problems follow the bundled examples, with sizes set by parameters:
+ *    lsq      - consensus least squares, workers with rows of A and b = A*x + noise, averaging master
+ *    logistic - consensus logistic regression, workers with rows of features and 0/1 targets, averaging master
+ *    kmeans   - workers with points around k random centers, KMeans master
+ *    lp       - min c^T*x s.t. A*x = b, x >= 0 with sparse rows of A split among projection nodes,
+ *               b = A*x0 for some x0 > 0 and c > 0, so the problem is feasible and bounded,
+ *               with nodes*rows below nvar the feasible set is more than a point
+ * Neighbors of nodes I carry the number of variables and rho, no -nvar or -rho is needed to solve it
+ * The input is written while it is generated, so it is never held in memory
+ *
+ * Parameters:
+ *    -problem <lsq | logistic | kmeans | lp | default: lsq>
+ *    -nodes <number of workers or constraint nodes | default: 4>
+ *    -nvar <number of variables, features of kmeans | default: 10>
+ *    -rows <rows of data or constraints per node | default: 100>
+ *    -density <fraction of nonzero entries of data or constraints | default: 1, lp: 0.1>
+ *    -clusters <k of kmeans | default: 3>
+ *    -rho <scaling parameter | default: 1>
+ *    -method <method of least squares nodes, analytical or iterative | default: node default>
+ *    -seed <seed of random numbers | default: 0>
+ *    -output <input file to write>
+ *
+ * @author Roman Denysiuk
+ */
+public class ProblemGenerator {
+
+    String problem = "lsq";
+    int nodes = 4;
+    int nvar = 10;
+    int rows = 100;
+    double density = Double.NaN;
+    int clusters = 3;
+    double rho = 1;
+    String method;
+    Random random = new Random(0);
+
+    public static void main(String[] args) throws IOException {
+
+        ProblemGenerator generator = new ProblemGenerator();
+        String output = null;
+        for(int i = 0; i < args.length - 1; i++){
+            if(args[i].equalsIgnoreCase("-problem")){
+                generator.problem = args[++i];
+            }
+            else if(args[i].equalsIgnoreCase("-nodes")){
+                generator.nodes = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-nvar")){
+                generator.nvar = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-rows")){
+                generator.rows = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-density")){
+                generator.density = Double.parseDouble(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-clusters")){
+                generator.clusters = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-rho")){
+                generator.rho = Double.parseDouble(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-method")){
+                generator.method = args[++i];
+            }
+            else if(args[i].equalsIgnoreCase("-seed")){
+                generator.random = new Random(Long.parseLong(args[++i]));
+            }
+            else if(args[i].equalsIgnoreCase("-output")){
+                output = args[++i];
+            }
+        }
+        if(output == null){
+            System.out.println("java -cp admm4j.jar org.admm4j.demo.launcher.ProblemGenerator -problem lp -nodes 16 -nvar 1000 -rows 50 -output lp_input.json");
+            return;
+        }
+        if(Double.isNaN(generator.density)){
+            generator.density = generator.problem.equalsIgnoreCase("lp") ? 0.1 : 1;
+        }
+
+        try(BufferedWriter file = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8);
+                JsonWriter writer = new JsonWriter(file)){
+            generator.write(writer);
+        }
+    }
+
+    public void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        if(problem.equalsIgnoreCase("lsq")){
+            writeLeastSquares(writer);
+        }
+        else if(problem.equalsIgnoreCase("logistic")){
+            writeLogisticRegression(writer);
+        }
+        else if(problem.equalsIgnoreCase("kmeans")){
+            writeKMeans(writer);
+        }
+        else if(problem.equalsIgnoreCase("lp")){
+            writeLinearProgram(writer);
+        }
+        else{
+            throw new IllegalArgumentException("Unknown problem: " + problem);
+        }
+        writer.endObject();
+    }
+
+    void writeLeastSquares(JsonWriter writer) throws IOException {
+
+        double[] x = normal(nvar, 1);
+        double[] row = new double[nvar];
+
+        writer.name("nodesI").beginArray();
+        for(int k = 0; k < nodes; k++){
+            beginNode(writer, "worker" + k, "org.admm4j.demo.ml.linearmodel.LeastSquaresNode", "master:" + nvar + ":" + rho);
+            if(method != null){
+                writer.name("method").value(method);
+            }
+            double[] b = new double[rows];
+            writer.name("A").beginArray();
+            for(int i = 0; i < rows; i++){
+                sparseRow(row);
+                b[i] = dot(row, x) + 0.1 * random.nextGaussian();
+                array(writer, row);
+            }
+            writer.endArray();
+            writer.name("b");
+            array(writer, b);
+            endNode(writer);
+        }
+        writer.endArray();
+
+        writeMaster(writer, "org.admm4j.demo.common.AveragingNode", null);
+    }
+
+    void writeLogisticRegression(JsonWriter writer) throws IOException {
+
+        double[] x = normal(nvar, 1);
+        double[] row = new double[nvar];
+
+        writer.name("nodesI").beginArray();
+        for(int k = 0; k < nodes; k++){
+            beginNode(writer, "worker" + k, "org.admm4j.demo.ml.linearmodel.LogisticRegressionNode", "master:" + nvar + ":" + rho);
+            double[] target = new double[rows];
+            writer.name("data").beginArray();
+            for(int i = 0; i < rows; i++){
+                sparseRow(row);
+                row[0] = 1; // intercept
+                double p = 1. / (1 + Math.exp(-dot(row, x)));
+                target[i] = random.nextDouble() < p ? 1 : 0; // labels drawn from the model are not separable
+                array(writer, row);
+            }
+            writer.endArray();
+            writer.name("target");
+            array(writer, target);
+            endNode(writer);
+        }
+        writer.endArray();
+
+        writeMaster(writer, "org.admm4j.demo.common.AveragingNode", null);
+    }
+
+    void writeKMeans(JsonWriter writer) throws IOException {
+
+        double[][] centers = new double[clusters][];
+        for(int j = 0; j < clusters; j++){
+            centers[j] = normal(nvar, 5);
+        }
+        double[] point = new double[nvar];
+
+        writer.name("nodesI").beginArray();
+        for(int k = 0; k < nodes; k++){
+            beginNode(writer, "worker" + k, "org.admm4j.demo.ml.cluster.KMeansWorker", "master:" + (clusters * nvar) + ":" + rho);
+            writer.name("k").value(clusters);
+            writer.name("data").beginArray();
+            for(int i = 0; i < rows; i++){
+                double[] center = centers[random.nextInt(clusters)];
+                for(int j = 0; j < nvar; j++){
+                    point[j] = center[j] + random.nextGaussian();
+                }
+                array(writer, point);
+            }
+            writer.endArray();
+            endNode(writer);
+        }
+        writer.endArray();
+
+        writeMaster(writer, "org.admm4j.demo.ml.cluster.KMeansMaster", clusters);
+    }
+
+    void writeLinearProgram(JsonWriter writer) throws IOException {
+
+        double[] x = new double[nvar];
+        double[] c = new double[nvar];
+        for(int j = 0; j < nvar; j++){
+            x[j] = random.nextDouble() + 0.1;
+            c[j] = random.nextDouble() + 0.1;
+        }
+
+        writer.name("nodesI").beginArray();
+        writer.beginObject();
+        writer.name("name").value("Objective");
+        writer.name("class").value("org.admm4j.demo.common.LinearFunctionNode");
+        writer.name("neighbors").beginArray();
+        for(int k = 0; k < nodes; k++){
+            writer.value("Constraints" + k + ":" + nvar + ":" + rho);
+        }
+        writer.endArray();
+        writer.name("input").beginObject();
+        writer.name("c");
+        array(writer, c);
+        writer.name("lb").value(0);
+        writer.endObject();
+        writer.endObject();
+        writer.endArray();
+
+        int nonzeros = Math.max(1, Math.min(nvar, (int) Math.round(density * nvar)));
+        int[] columns = new int[nvar];
+        for(int j = 0; j < nvar; j++){
+            columns[j] = j;
+        }
+
+        writer.name("nodesII").beginArray();
+        for(int k = 0; k < nodes; k++){
+            writer.beginObject();
+            writer.name("name").value("Constraints" + k);
+            writer.name("class").value("org.admm4j.demo.common.ProjectionNode");
+            writer.name("neighbors").nullValue();
+            writer.name("input").beginObject();
+            writer.name("SparseAffine").beginObject();
+
+            int[][] idx = new int[rows][];
+            double[][] a = new double[rows][];
+            double[] b = new double[rows];
+            for(int i = 0; i < rows; i++){
+                // partial Fisher-Yates shuffle picks distinct columns
+                idx[i] = new int[nonzeros];
+                a[i] = new double[nonzeros];
+                for(int j = 0; j < nonzeros; j++){
+                    int r = j + random.nextInt(nvar - j);
+                    int swap = columns[j];
+                    columns[j] = columns[r];
+                    columns[r] = swap;
+                    idx[i][j] = columns[j];
+                    a[i][j] = random.nextGaussian();
+                    b[i] += a[i][j] * x[columns[j]];
+                }
+            }
+            writer.name("idx").beginArray();
+            for(int[] row: idx){
+                writer.beginArray();
+                for(int j: row){
+                    writer.value(j);
+                }
+                writer.endArray();
+            }
+            writer.endArray();
+            writer.name("A").beginArray();
+            for(double[] row: a){
+                array(writer, row);
+            }
+            writer.endArray();
+            writer.name("b");
+            array(writer, b);
+
+            writer.endObject();
+            writer.endObject();
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    // opens a node I with one neighbor and its input
+    void beginNode(JsonWriter writer, String name, String clazz, String neighbor) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(name);
+        writer.name("class").value(clazz);
+        writer.name("neighbors").beginArray().value(neighbor).endArray();
+        writer.name("input").beginObject();
+    }
+
+    void endNode(JsonWriter writer) throws IOException {
+        writer.endObject();
+        writer.endObject();
+    }
+
+    // single node II named master, neighbors are taken from the workers
+    void writeMaster(JsonWriter writer, String clazz, Integer k) throws IOException {
+        writer.name("nodesII").beginArray();
+        writer.beginObject();
+        writer.name("name").value("master");
+        writer.name("class").value(clazz);
+        writer.name("neighbors").nullValue();
+        if(k != null){
+            writer.name("input").beginObject().name("k").value(k).endObject();
+        }
+        else{
+            writer.name("input").nullValue();
+        }
+        writer.endObject();
+        writer.endArray();
+    }
+
+    // entries are nonzero with probability density
+    void sparseRow(double[] row){
+        for(int j = 0; j < row.length; j++){
+            row[j] = random.nextDouble() < density ? random.nextGaussian() : 0;
+        }
+    }
+
+    double[] normal(int n, double scale){
+        double[] v = new double[n];
+        for(int j = 0; j < n; j++){
+            v[j] = scale * random.nextGaussian();
+        }
+        return v;
+    }
+
+    static double dot(double[] a, double[] b){
+        double sum = 0;
+        for(int j = 0; j < a.length; j++){
+            sum += a[j] * b[j];
+        }
+        return sum;
+    }
+
+    static void array(JsonWriter writer, double[] v) throws IOException {
+        writer.beginArray();
+        for(double d: v){
+            writer.value(d);
+        }
+        writer.endArray();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.demo.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Reports scaling efficiency of the distributed engine on localhost
+ * For each number of processes the input is solved by that many JVMs
+ * started with the classpath of this one, each hosting a subset of nodes
+ * Throughput of process 0 is compared with the throughput of a single process,
+ * efficiency is the speedup divided by the number of processes
+ *
+ * Accepts the same parameters as Main plus:
+ *    -processes <numbers of processes, comma separated | default: 1,2,4>
+ *    -port <port of process 0, other processes use the following ports | default: 7000>
+ *
+ * @author Roman Denysiuk
+ */
+public class ScalingBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        String[] processes = {"1", "2", "4"};
+        int port = 7000;
+        List<String> common = new ArrayList();
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equalsIgnoreCase("-processes")){
+                processes = args[++i].split(",");
+            }
+            else if(args[i].equalsIgnoreCase("-port")){
+                port = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase("-output") || args[i].equalsIgnoreCase("-engine")
+                    || args[i].equalsIgnoreCase("-hosts") || args[i].equalsIgnoreCase("-rank")){
+                i++; // set for each process
+            }
+            else{
+                common.add(args[i]);
+            }
+        }
+
+        ScalingReport report = new ScalingReport("Processes", "");
+        for(String token: processes){
+            int n = Integer.parseInt(token.trim());
+            report.print(n, run(n, port, common, report), "");
+        }
+    }
+
+    // runs n processes, returns statistics of process 0
+    public static JsonObject run(int n, int port, List<String> common, ScalingReport report) throws IOException, InterruptedException {
+
+        StringBuilder hosts = new StringBuilder();
+        for(int r = 0; r < n; r++){
+            hosts.append(r > 0 ? "," : "").append("localhost:").append(port + r);
+        }
+
+        List<Process> jvms = new ArrayList();
+        for(int r = 0; r < n; r++){
+            List<String> args = new ArrayList(common);
+            args.add("-engine");
+            args.add(n > 1 ? "org.admm4j.impl.distributed.SocketAdmm" : "org.admm4j.impl.base.Admm");
+            args.add("-hosts");
+            args.add(hosts.toString());
+            args.add("-rank");
+            args.add(String.valueOf(r));
+            args.add("-output");
+            args.add(new File(report.dir, "output_" + n + "_" + r + ".json").getPath());
+            jvms.add(report.start(new ArrayList(), new ArrayList(), Main.class, args, "log_" + n + "_" + r + ".txt"));
+        }
+
+        boolean success = true;
+        for(Process jvm: jvms){
+            success &= jvm.waitFor() == 0;
+        }
+
+        JsonObject output = report.read(success, new File(report.dir, "output_" + n + "_0.json"));
+        return output == null ? null : output.getAsJsonObject("stats");
+    }
+}
@@ -0,0 +1,79 @@
+/*
+* To change this license header, choose License Headers in Project Properties.
+* To change this template file, choose Tools | Templates
+* and open the template in the editor.
+*/
+package org.admm4j.demo.launcher;
+
+import org.admm4j.impl.base.AdmmContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Implements the part of the scaling benchmarks shared by all of them:
+ * runs are JVMs started with the classpath of this one, logging into a temporary directory,
+ * and each run is reported with its throughput, speedup and efficiency
+ * relative to the per unit throughput of the first run
+ *
+ * @author Roman Denysiuk
+ */
+public class ScalingReport {
+
+    public File dir; // logs and outputs of the runs
+    String extra; // header of the columns following efficiency
+    double base = 0; // throughput per unit of the first run
+
+    public ScalingReport(String unit, String extra) throws IOException {
+        this.extra = extra;
+        dir = File.createTempFile("admm4j", "");
+        dir.delete();
+        dir.mkdir();
+        System.out.printf("%9s   Iterations   Runtime   Iter/s   Speedup   Efficiency%s\n", unit, extra);
+    }
+
+    // starts a JVM running the class with the given options before and arguments after its name
+    public Process start(List<String> prefix, List<String> options, Class<?> main, List<String> args, String log) throws IOException {
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList(prefix);
+        command.add(java);
+        command.addAll(options);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(main.getName());
+        command.addAll(args);
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(new File(dir, log));
+        return builder.start();
+    }
+
+    // json saved by a successful run, null otherwise
+    public JsonObject read(boolean success, File output){
+        if(!success || !output.exists()){
+            return null;
+        }
+        return new AdmmContext().getJsonFromFile(output.getPath()).getAsJsonObject();
+    }
+
+    // prints the row of a run with n units, stats are null if it failed, extra columns follow efficiency
+    public void print(int n, JsonObject stats, String columns){
+        if(stats == null){
+            System.out.printf("%9d   failed, see logs in %s\n", n, dir);
+            return;
+        }
+        double throughput = stats.get("iterationsPerSecond").getAsDouble();
+        if(base == 0){
+            base = throughput / n; // per unit throughput of the first run
+        }
+        double speedup = throughput / base;
+        System.out.printf("%9d   %10d   %7d   %6.1f   %7.2f   %10.2f%s\n", n, stats.get("numIterations").getAsInt(),
+                stats.get("runTime").getAsLong(), throughput, speedup, speedup / n, columns);
+    }
+}
@@ -20,6 +20,10 @@ public class KMeansMaster extends Node{
     
     int numClusters;
     
+    public KMeansMaster(){
+        doubleBuffered = true; // solve overwrites all variables
+    }
+    
     @Override
     public void build(JsonObject input) {
         numClusters = input.get("k").getAsInt();
@@ -9,6 +9,7 @@ import org.admm4j.core.Node;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.google.gson.JsonObject;
 
@@ -24,6 +25,11 @@ public class KMeansWorker extends Node{
     List<double[]> data;    
     int numClusters;
     int numFeatures;
+    int[] pointsCounter; // number of points closest to each cluster center
+    
+    public KMeansWorker(){
+        doubleBuffered = true; // solve overwrites all variables
+    }
     
     @Override
     public void build(JsonObject input) {
@@ -46,11 +52,15 @@ public class KMeansWorker extends Node{
         // neighborVariables is a vector that contains cluster centers being concatenated
         double[] currentCenters = neighborVariables.get(neighbor);
         
-        // init new cluster centers
-        double[] newCenters = new double[numClusters*numFeatures];
+        // init new cluster centers, vars are updated in place
+        double[] newCenters = variables.get(neighbor);
+        Arrays.fill(newCenters, 0);
         
         // number of points closest to the current cluster centers
-        int[] pointsCounter = new int[numClusters];
+        if(pointsCounter == null){
+            pointsCounter = new int[numClusters];
+        }
+        Arrays.fill(pointsCounter, 0);
         
         // for each data point
         for(double[] point: data){            
@@ -83,9 +93,6 @@ public class KMeansWorker extends Node{
                 }
             }
         }
-        
-        // update variables
-        variables.put(neighbor, newCenters);
     }
     
     public double distance(double[] point, double[] c, int start) {
@@ -14,6 +14,7 @@ import cern.colt.matrix.tdouble.DoubleFactory2D;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.colt.matrix.tdouble.algo.DenseDoubleAlgebra;
+import cern.colt.matrix.tdouble.algo.decomposition.DenseDoubleLUDecomposition;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -32,6 +33,7 @@ public class LeastSquaresNode extends Node{
     DoubleMatrix2D AA;
     DoubleMatrix1D Ab;
     DenseDoubleAlgebra algebra = new DenseDoubleAlgebra();
+    DenseDoubleLUDecomposition factorization; // of (A^T*A + rho*I), dropped when rho changes
     
     DoubleMatrix2D A;
     DoubleMatrix1D b;
@@ -92,24 +94,35 @@ public class LeastSquaresNode extends Node{
     * f = 1/2*||Ax-b||^2 + rho/2*||x-y||^2
     * df = A^T*A*x - A^T*b + rho*x - rho*y
     * (A^T*A + rho*I)*x = A^T*b + rho*y
+    * the factorization of the left side is kept until rho changes
     */
     void analyticalSolution() {
         String neighbor = neighbors.get(0);
         double rho = scalingParameters.get(neighbor);
         int n = numVariables.get(neighbor);
         
-        DoubleMatrix2D Left = AA.copy();
-        DoubleMatrix1D Right = DoubleFactory1D.dense.make(n);
+        if(factorization == null){
+            DoubleMatrix2D Left = AA.copy();
+            for(int i = 0; i < n; i++){
+                Left.setQuick(i, i, AA.getQuick(i,i) + rho); // AA + I*rho
+            }
+            factorization = algebra.lu(Left);
+        }
         
+        DoubleMatrix1D Right = DoubleFactory1D.dense.make(n);
         for(int i = 0; i < n; i++){
-            double y = neighborVariables.get(neighbor)[i] - multipliers.get(neighbor)[i];
-            Left.setQuick(i, i, AA.getQuick(i,i) + rho); // AA + I*rho
+            double y = getProximalPoint(neighbor, i);
             Right.setQuick(i, Ab.getQuick(i) + rho*y);
         }
         
-        DoubleMatrix1D X = algebra.solve(Left, Right);
+        DoubleMatrix1D X = factorization.solve(Right);
         
-        variables.put(neighbor, X.toArray());
+        X.toArray(variables.get(neighbor));
+    }
+    
+    @Override
+    public void scalingParameterChanged(String neighbor) {
+        factorization = null;
     }
     
     /*
@@ -127,7 +140,7 @@ public class LeastSquaresNode extends Node{
         
         solver.execute(sol, X -> evalGradient(X, Y), X -> objective(X, Y));
         
-        variables.put(neighbor, sol.toArray());
+        sol.toArray(x);
     }
     
     /*
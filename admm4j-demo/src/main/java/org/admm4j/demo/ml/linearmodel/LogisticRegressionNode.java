@@ -67,7 +67,7 @@ public class LogisticRegressionNode extends Node{
         
         solver.execute(sol, X -> evalGradient(X, Y), X -> objective(X, Y));
         
-        variables.put(neighbor, sol.toArray());
+        sol.toArray(variables.get(neighbor));
     }
     
     @Override